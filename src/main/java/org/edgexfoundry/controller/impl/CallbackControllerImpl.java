@@ -20,7 +20,9 @@ package org.edgexfoundry.controller.impl;
 
 import org.edgexfoundry.controller.CallbackController;
 import org.edgexfoundry.domain.meta.CallbackAlert;
+import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.exception.controller.ServiceException;
+import org.edgexfoundry.scheduling.InvalidFrequencyException;
 import org.edgexfoundry.scheduling.SchedulerCallbackHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -47,6 +49,9 @@ public class CallbackControllerImpl implements CallbackController {
     try {
       logger.debug("put callback : '" + alert.toString() + "'");
       return (callbackHandler.handlePut(alert)) ? TRUE : FALSE;
+    } catch (InvalidFrequencyException e) {
+      logger.error("put rejected : " + e.getMessage());
+      throw new DataValidationException(e.getMessage());
     } catch (Exception e) {
       logger.error("put error : " + e.getMessage());
       throw new ServiceException(e);
@@ -59,6 +64,9 @@ public class CallbackControllerImpl implements CallbackController {
     try {
       logger.debug("post callback : '" + alert.toString() + "'");
       return (callbackHandler.handlePost(alert)) ? TRUE : FALSE;
+    } catch (InvalidFrequencyException e) {
+      logger.error("post rejected : " + e.getMessage());
+      throw new DataValidationException(e.getMessage());
     } catch (Exception e) {
       logger.error("post error : " + e.getMessage());
       throw new ServiceException(e);
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+// A cron expression compiled into one bitset per field. Accepts five fields (minute hour
+// day-of-month month day-of-week) or six with leading seconds, as in "0 0 12 * * ?". Fields take
+// *, ?, values, ranges a-b, lists a,b and steps */n or a-b/n. Months and days of the week also
+// take names (JAN-DEC, SUN-SAT), Sunday is 0 or 7. As in Unix cron, when both day fields are
+// restricted a day matching either one fires.
+//
+// The next fire time is found field by field with next-set-bit lookups, so the cost does not
+// depend on how far away the next fire is.
+public class CronExpression {
+
+  private static final String[] MONTHS =
+      {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+  private static final String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+  // a match always exists within 8 years (Feb 29 across a skipped leap year)
+  private static final int MAX_MONTHS_SEARCHED = 8 * 12 + 1;
+
+  private final String expression;
+
+  // bit n set when value n matches, days of the month and months are 1 based
+  private final long seconds;
+  private final long minutes;
+  private final long hours;
+  private final long daysOfMonth;
+  private final long months;
+  private final long daysOfWeek;
+
+  // a field given as * or ? does not restrict the day
+  private final boolean anyDayOfMonth;
+  private final boolean anyDayOfWeek;
+
+  private CronExpression(String expression, String[] fields) {
+    this.expression = expression;
+    int field = 0;
+    seconds = fields.length == 6 ? parseField(fields[field++], 0, 59, null) : 1L;
+    minutes = parseField(fields[field++], 0, 59, null);
+    hours = parseField(fields[field++], 0, 23, null);
+    daysOfMonth = parseField(fields[field], 1, 31, null);
+    anyDayOfMonth = isAny(fields[field++]);
+    months = parseField(fields[field++], 1, 12, MONTHS);
+    long dow = parseField(fields[field], 0, 7, DAYS);
+    anyDayOfWeek = isAny(fields[field]);
+    // fold Sunday as 7 onto 0
+    daysOfWeek = (dow | (dow >>> 7)) & 0x7F;
+  }
+
+  // compile an expression, throws IllegalArgumentException if it is malformed or never fires
+  public static CronExpression parse(String expression) {
+    if (expression == null || expression.trim().isEmpty()) {
+      throw new IllegalArgumentException("cron expression is empty");
+    }
+    String[] fields = expression.trim().split("\\s+");
+    if (fields.length != 5 && fields.length != 6) {
+      throw new IllegalArgumentException(
+          "cron expression '" + expression + "' must have 5 or 6 fields, has " + fields.length);
+    }
+    CronExpression cron = new CronExpression(expression, fields);
+    if (!cron.canFire()) {
+      throw new IllegalArgumentException("cron expression '" + expression + "' never fires");
+    }
+    return cron;
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  // the first fire time strictly after the given time, in the same zone
+  public ZonedDateTime next(ZonedDateTime after) {
+    LocalDateTime t = after.toLocalDateTime().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+    int year = t.getYear();
+    int month = t.getMonthValue();
+    int day = t.getDayOfMonth();
+    int hour = t.getHour();
+    int minute = t.getMinute();
+    int second = t.getSecond();
+
+    for (int searched = 0; searched < MAX_MONTHS_SEARCHED;) {
+      int nextMonth = nextSetBit(months, month);
+      if (nextMonth == -1) {
+        year++;
+        month = nextSetBit(months, 1);
+        day = 1;
+        hour = minute = second = 0;
+        searched++;
+        continue;
+      }
+      if (nextMonth != month) {
+        month = nextMonth;
+        day = 1;
+        hour = minute = second = 0;
+      }
+      int nextDay = nextSetBit(dayMask(year, month), day);
+      if (nextDay == -1) {
+        month++;
+        day = 1;
+        hour = minute = second = 0;
+        searched++;
+        if (month > 12) {
+          year++;
+          month = 1;
+        }
+        continue;
+      }
+      if (nextDay != day) {
+        day = nextDay;
+        hour = minute = second = 0;
+      }
+      int nextHour = nextSetBit(hours, hour);
+      if (nextHour == -1) {
+        // roll to the next day and search again from midnight
+        LocalDate date = LocalDate.of(year, month, day).plusDays(1);
+        year = date.getYear();
+        month = date.getMonthValue();
+        day = date.getDayOfMonth();
+        hour = minute = second = 0;
+        continue;
+      }
+      if (nextHour != hour) {
+        hour = nextHour;
+        minute = second = 0;
+      }
+      int nextMinute = nextSetBit(minutes, minute);
+      if (nextMinute == -1) {
+        hour++;
+        minute = second = 0;
+        if (hour > 23) {
+          LocalDate date = LocalDate.of(year, month, day).plusDays(1);
+          year = date.getYear();
+          month = date.getMonthValue();
+          day = date.getDayOfMonth();
+          hour = 0;
+        }
+        continue;
+      }
+      if (nextMinute != minute) {
+        minute = nextMinute;
+        second = 0;
+      }
+      int nextSecond = nextSetBit(seconds, second);
+      if (nextSecond == -1) {
+        minute++;
+        second = 0;
+        if (minute > 59) {
+          minute = 0;
+          hour++;
+          if (hour > 23) {
+            LocalDate date = LocalDate.of(year, month, day).plusDays(1);
+            year = date.getYear();
+            month = date.getMonthValue();
+            day = date.getDayOfMonth();
+            hour = 0;
+          }
+        }
+        continue;
+      }
+      ZonedDateTime next = ZonedDateTime
+          .of(LocalDateTime.of(year, month, day, hour, minute, nextSecond), after.getZone());
+      // a local time repeated when the clocks go back fires in the later offset once passed
+      return next.isAfter(after) ? next : next.withLaterOffsetAtOverlap();
+    }
+    throw new IllegalStateException("cron expression '" + expression + "' has no next fire time");
+  }
+
+  // true if the time, to the second, is a fire time
+  public boolean matches(LocalDateTime time) {
+    return (seconds & (1L << time.getSecond())) != 0 && (minutes & (1L << time.getMinute())) != 0
+        && (hours & (1L << time.getHour())) != 0 && (months & (1L << time.getMonthValue())) != 0
+        && (dayMask(time.getYear(), time.getMonthValue()) & (1L << time.getDayOfMonth())) != 0;
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  // days (bit 1 to the month's length) of the month that match the day fields
+  private long dayMask(int year, int month) {
+    int length = YearMonth.of(year, month).lengthOfMonth();
+    long inMonth = ((1L << (length + 1)) - 1) & ~1L;
+    if (anyDayOfWeek) {
+      return daysOfMonth & inMonth;
+    }
+    // repeat the week's pattern across the month, starting at the weekday of the 1st
+    int firstWeekday = LocalDate.of(year, month, 1).getDayOfWeek().getValue() % 7;
+    long week = ((daysOfWeek >>> firstWeekday) | (daysOfWeek << (7 - firstWeekday))) & 0x7F;
+    long weekdays = week | (week << 7) | (week << 14) | (week << 21) | (week << 28);
+    weekdays = (weekdays << 1) & inMonth;
+    if (anyDayOfMonth) {
+      return weekdays;
+    }
+    return ((daysOfMonth & inMonth) | weekdays);
+  }
+
+  // a restricted day of the month must fit in one of the selected months (Feb has 29 days)
+  private boolean canFire() {
+    if (!anyDayOfWeek) {
+      return true;
+    }
+    int[] lengths = {0, 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    for (int month = 1; month <= 12; month++) {
+      if ((months & (1L << month)) != 0
+          && (daysOfMonth & (((1L << (lengths[month] + 1)) - 1) & ~1L)) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int nextSetBit(long bits, int from) {
+    if (from > 63) {
+      return -1;
+    }
+    long remaining = bits & (-1L << from);
+    return remaining == 0 ? -1 : Long.numberOfTrailingZeros(remaining);
+  }
+
+  private static boolean isAny(String field) {
+    return "*".equals(field) || "?".equals(field);
+  }
+
+  private static long parseField(String field, int min, int max, String[] names) {
+    long bits = 0;
+    for (String part : field.split(",")) {
+      bits |= parsePart(field, part, min, max, names);
+    }
+    return bits;
+  }
+
+  private static long parsePart(String field, String part, int min, int max, String[] names) {
+    int step = 1;
+    int slash = part.indexOf('/');
+    String range = part;
+    if (slash != -1) {
+      step = parseValue(field, part.substring(slash + 1), 1, max, null);
+      range = part.substring(0, slash);
+    }
+    int low;
+    int high;
+    if ("*".equals(range) || "?".equals(range)) {
+      low = min;
+      high = max;
+    } else {
+      int dash = range.indexOf('-');
+      if (dash == -1) {
+        low = parseValue(field, range, min, max, names);
+        // a step from a single value runs to the end of the range, e.g. 5/15
+        high = slash == -1 ? low : max;
+      } else {
+        low = parseValue(field, range.substring(0, dash), min, max, names);
+        high = parseValue(field, range.substring(dash + 1), min, max, names);
+      }
+    }
+    if (low > high) {
+      throw new IllegalArgumentException("cron field '" + field + "' has an empty range " + part);
+    }
+    long bits = 0;
+    for (int value = low; value <= high; value += step) {
+      bits |= 1L << value;
+    }
+    return bits;
+  }
+
+  private static int parseValue(String field, String value, int min, int max, String[] names) {
+    if (names != null) {
+      for (int i = 0; i < names.length; i++) {
+        if (names[i].equalsIgnoreCase(value)) {
+          // months are 1 based, days of the week 0 based
+          return names.length == 12 ? i + 1 : i;
+        }
+      }
+    }
+    int parsed;
+    try {
+      parsed = Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("cron field '" + field + "' has a bad value " + value);
+    }
+    if (parsed < min || parsed > max) {
+      throw new IllegalArgumentException(
+          "cron field '" + field + "' value " + parsed + " is outside " + min + "-" + max);
+    }
+    return parsed;
+  }
+}
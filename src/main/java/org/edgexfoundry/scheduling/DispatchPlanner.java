@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+
+// Spreads the events of co-scheduled fires over time. Each event may be splayed by a
+// deterministic offset derived from its id within the schedule's splay window, and the number of
+// events released in any one second is capped, excess events move to the next second with room.
+// Each shard plans its own fires with its share of the cap, on its timer thread.
+class DispatchPlanner {
+
+  // seconds tracked ahead of the current one, events are not deferred further than this
+  private static final int HORIZON_SECONDS = 3600;
+
+  private final int maxPerSecond;
+
+  // ring of per-second release counts, tagged with the second they count. A full second points
+  // at a later second that may have room, every second between them is full.
+  private final long[] seconds = new long[HORIZON_SECONDS];
+  private final int[] counts = new int[HORIZON_SECONDS];
+  private final long[] nextFree = new long[HORIZON_SECONDS];
+
+  private final LongAdder deferred = new LongAdder();
+
+  // maxPerSecond of 0 or less does not cap the rate
+  DispatchPlanner(int maxPerSecond) {
+    this.maxPerSecond = maxPerSecond;
+  }
+
+  // plan the events of a schedule fired at fireTime (epoch millis), splayed over splayWindow ms
+  List<PlannedDispatch> plan(ScheduleEvent[] events, long fireTime, long splayWindow) {
+    if (splayWindow <= 0 && maxPerSecond <= 0) {
+      return Collections.singletonList(new PlannedDispatch(fireTime, events));
+    }
+    List<PlannedDispatch> planned = new ArrayList<>(events.length);
+    for (ScheduleEvent event : events) {
+      long releaseTime = level(fireTime + splay(event.getId(), splayWindow));
+      planned.add(new PlannedDispatch(releaseTime, new ScheduleEvent[] {event}));
+    }
+    return planned;
+  }
+
+  // number of events moved to a later second by the rate cap
+  long getDeferred() {
+    return deferred.sum();
+  }
+
+  // deterministic offset in [0, window) ms for an event id
+  static long splay(String eventId, long window) {
+    if (window <= 0 || eventId == null) {
+      return 0;
+    }
+    // spread the String hash so similar ids land far apart
+    long hash = eventId.hashCode() * 0x9E3779B97F4A7C15L;
+    return Math.floorMod(hash ^ (hash >>> 32), window);
+  }
+
+  // the release time for an event due at releaseTime, moved to a later second if it is full
+  private synchronized long level(long releaseTime) {
+    if (maxPerSecond <= 0) {
+      return releaseTime;
+    }
+    long second = Math.floorDiv(releaseTime, 1000);
+    long candidate = free(second);
+    if (candidate - second >= HORIZON_SECONDS) {
+      // every tracked second is full, release at the end of the horizon
+      deferred.increment();
+      return (second + HORIZON_SECONDS) * 1000;
+    }
+    int slot = slot(candidate);
+    if (seconds[slot] != candidate) {
+      seconds[slot] = candidate;
+      counts[slot] = 0;
+      nextFree[slot] = candidate + 1;
+    }
+    int position = counts[slot]++;
+    if (candidate == second) {
+      return releaseTime;
+    }
+    deferred.increment();
+    // spread deferred events evenly over the second
+    return candidate * 1000 + position * 1000L / maxPerSecond;
+  }
+
+  // the first second at or after second with room, following the full seconds' pointers and
+  // pointing every second passed at it, so a burst does not rescan the seconds it filled
+  private long free(long second) {
+    long candidate = second;
+    while (candidate - second < HORIZON_SECONDS && isFull(candidate)) {
+      candidate = nextFree[slot(candidate)];
+    }
+    for (long full = second; full < candidate && isFull(full);) {
+      int slot = slot(full);
+      full = nextFree[slot];
+      nextFree[slot] = candidate;
+    }
+    return candidate;
+  }
+
+  private boolean isFull(long second) {
+    int slot = slot(second);
+    return seconds[slot] == second && counts[slot] >= maxPerSecond;
+  }
+
+  private static int slot(long second) {
+    return (int) Math.floorMod(second, (long) HORIZON_SECONDS);
+  }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.time.Duration;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.edgexfoundry.domain.meta.Schedule;
+
+// How often a schedule repeats: an ISO-8601 frequency such as P1D or PT0.25S, or a cron
+// expression. Compiled and validated once when a schedule is ingested and shared by every
+// context with the same frequency string.
+public final class Frequency {
+
+  // shortest repeat, the schedule queues are precise to the millisecond
+  public static final Duration MIN_REPEAT = Duration.ofMillis(1);
+
+  // a run once schedule without a frequency never repeats
+  static final Frequency ONCE = new Frequency("", Period.ZERO, Duration.ZERO, null);
+
+  // compiled frequencies are kept until the cache is full, then compiled per use
+  private static final int MAX_CACHED = 1024;
+  private static final Map<String, Frequency> frequencies = new ConcurrentHashMap<>();
+  private static final Map<String, Frequency> crons = new ConcurrentHashMap<>();
+
+  private final String text;
+  private final Period period;
+  private final Duration duration;
+  private final CronExpression cron;
+
+  private Frequency(String text, Period period, Duration duration, CronExpression cron) {
+    this.text = text;
+    this.period = period;
+    this.duration = duration;
+    this.cron = cron;
+  }
+
+  // the schedule's frequency, its cron expression when it has no frequency, or ONCE for a run
+  // once schedule with neither. A run once schedule fires once whatever its frequency, so one
+  // that does not compile is not rejected either.
+  public static Frequency of(Schedule schedule) {
+    if (schedule.getRunOnce()) {
+      try {
+        return compile(schedule);
+      } catch (InvalidFrequencyException e) {
+        return ONCE;
+      }
+    }
+    return compile(schedule);
+  }
+
+  private static Frequency compile(Schedule schedule) {
+    String frequency = schedule.getFrequency();
+    if (frequency != null && !frequency.trim().isEmpty()) {
+      return parse(frequency);
+    }
+    String expression = schedule.getCron();
+    if (expression != null && !expression.trim().isEmpty()) {
+      return cron(expression);
+    }
+    throw new InvalidFrequencyException(
+        "schedule " + schedule.getName() + " has no frequency or cron expression");
+  }
+
+  // compile an ISO-8601 frequency, P[n]Y[n]M[n]W[n]D[T[n]H[n]M[n.n]S]
+  public static Frequency parse(String frequency) {
+    Frequency compiled = frequencies.get(frequency);
+    if (compiled == null) {
+      compiled = compile(frequency);
+      if (frequencies.size() < MAX_CACHED) {
+        frequencies.putIfAbsent(frequency, compiled);
+      }
+    }
+    return compiled;
+  }
+
+  public static Frequency cron(String expression) {
+    Frequency compiled = crons.get(expression);
+    if (compiled == null) {
+      try {
+        compiled =
+            new Frequency(expression, Period.ZERO, Duration.ZERO, CronExpression.parse(expression));
+      } catch (IllegalArgumentException e) {
+        throw new InvalidFrequencyException(e.getMessage());
+      }
+      if (crons.size() < MAX_CACHED) {
+        crons.putIfAbsent(expression, compiled);
+      }
+    }
+    return compiled;
+  }
+
+  private static Frequency compile(String frequency) {
+    String text = frequency.trim();
+    if (text.isEmpty() || text.charAt(0) != 'P') {
+      throw new InvalidFrequencyException("frequency '" + frequency + "' must start with P");
+    }
+    int timeStart = text.indexOf('T');
+    String date = timeStart == -1 ? text : text.substring(0, timeStart);
+    Period period = Period.ZERO;
+    Duration duration = Duration.ZERO;
+    try {
+      // a time only frequency such as PT0.25S has no period
+      if (!"P".equals(date)) {
+        period = Period.parse(date);
+      }
+      if (timeStart != -1) {
+        duration = Duration.parse("P" + text.substring(timeStart));
+      }
+    } catch (DateTimeParseException e) {
+      throw new InvalidFrequencyException("frequency '" + frequency + "' is not ISO-8601");
+    }
+    if (period.isNegative() || duration.isNegative()) {
+      throw new InvalidFrequencyException("frequency '" + frequency + "' is negative");
+    }
+    if (period.isZero() && duration.compareTo(MIN_REPEAT) < 0) {
+      throw new InvalidFrequencyException(
+          "frequency '" + frequency + "' repeats more often than every " + MIN_REPEAT.toMillis()
+              + "ms");
+    }
+    return new Frequency(text, period, duration, null);
+  }
+
+  public Period getPeriod() {
+    return period;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  // the cron expression, null for an ISO-8601 frequency
+  public CronExpression getCron() {
+    return cron;
+  }
+
+  @Override
+  public String toString() {
+    return text;
+  }
+}
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Indexed binary heap keyed by schedule id. Each entry tracks its position in the heap so
+// insert, poll, remove and update (decrease/increase key) are all O(log n).
+public class HeapScheduleQueue implements ScheduleQueue {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private static final class Entry {
+    private final ScheduleContext context;
+    // next time (epoch millis) when the entry was last positioned
+    private long key;
+    private int index;
+
+    private Entry(ScheduleContext context) {
+      this.context = context;
+    }
+  }
+
+  // prioritized based upon the next execution time of each schedule
+  private Entry[] heap = new Entry[INITIAL_CAPACITY];
+  private int size;
+
+  // schedule id -> heap entry
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  @Override
+  public void add(ScheduleContext scheduleContext) {
+    if (entries.containsKey(scheduleContext.getId())) {
+      update(scheduleContext);
+      return;
+    }
+    Entry entry = new Entry(scheduleContext);
+    entry.key = scheduleContext.getNextTimeMillis();
+    entries.put(scheduleContext.getId(), entry);
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size * 2);
+    }
+    entry.index = size;
+    heap[size++] = entry;
+    siftUp(entry.index);
+  }
+
+  @Override
+  public boolean remove(ScheduleContext scheduleContext) {
+    Entry entry = entries.remove(scheduleContext.getId());
+    if (entry == null) {
+      return false;
+    }
+    removeAt(entry.index);
+    return true;
+  }
+
+  @Override
+  public void update(ScheduleContext scheduleContext) {
+    Entry entry = entries.get(scheduleContext.getId());
+    if (entry == null) {
+      add(scheduleContext);
+      return;
+    }
+    long previous = entry.key;
+    entry.key = scheduleContext.getNextTimeMillis();
+    if (entry.key < previous) {
+      siftUp(entry.index);
+    } else {
+      siftDown(entry.index);
+    }
+  }
+
+  @Override
+  public ScheduleContext pollDue(long now) {
+    if (size == 0 || heap[0].key > now) {
+      return null;
+    }
+    Entry head = heap[0];
+    entries.remove(head.context.getId());
+    removeAt(0);
+    return head.context;
+  }
+
+  @Override
+  public long nextDeadline() {
+    return size == 0 ? Long.MAX_VALUE : heap[0].key;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(heap, 0, size, null);
+    size = 0;
+    entries.clear();
+  }
+
+  private void removeAt(int index) {
+    Entry last = heap[--size];
+    heap[size] = null;
+    if (index == size) {
+      return;
+    }
+    heap[index] = last;
+    last.index = index;
+    siftDown(index);
+    if (heap[index] == last) {
+      siftUp(index);
+    }
+  }
+
+  private void siftUp(int index) {
+    Entry entry = heap[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (heap[parent].key <= entry.key) {
+        break;
+      }
+      heap[index] = heap[parent];
+      heap[index].index = index;
+      index = parent;
+    }
+    heap[index] = entry;
+    entry.index = index;
+  }
+
+  private void siftDown(int index) {
+    Entry entry = heap[index];
+    int half = size >>> 1;
+    while (index < half) {
+      int child = (index << 1) + 1;
+      int right = child + 1;
+      if (right < size && heap[right].key < heap[child].key) {
+        child = right;
+      }
+      if (entry.key <= heap[child].key) {
+        break;
+      }
+      heap[index] = heap[child];
+      heap[index].index = index;
+      index = child;
+    }
+    heap[index] = entry;
+    entry.index = index;
+  }
+}
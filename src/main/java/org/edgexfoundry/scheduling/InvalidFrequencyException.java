@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+// A schedule was rejected because its frequency or cron expression is malformed or would fire
+// too often, e.g. a zero-length period.
+public class InvalidFrequencyException extends IllegalArgumentException {
+
+  private static final long serialVersionUID = 1L;
+
+  public InvalidFrequencyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+// What to do with a schedule whose next time is more than the misfire tolerance in the past,
+// e.g. after a JVM pause or a backlogged tick. Schedules within the tolerance always fire.
+public enum MisfirePolicy {
+
+  // fire once now and skip the other missed occurrences (counted as coalesced)
+  FIRE_ONCE,
+
+  // fire every missed occurrence, one per tick, until the schedule catches up
+  FIRE_ALL,
+
+  // do not fire, skip every missed occurrence and wait for the next one
+  SKIP,
+
+  // skip to the latest missed occurrence and fire it only if it is within the tolerance
+  FIRE_WITHIN_TOLERANCE;
+
+  // parse a policy name such as fire_once or fire-once, null if unknown
+  public static MisfirePolicy parse(String name) {
+    if (name == null) {
+      return null;
+    }
+    try {
+      return valueOf(name.trim().replace('-', '_').toUpperCase());
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+// Indexed binary heap with its entries in direct (off-heap) buffers. Each queued context gets a
+// fixed-size slot holding its next time and heap position, and the heap is an array of slot
+// numbers. On heap there is only the slot -> context table and an open addressing id -> slot
+// index, so a million queued schedules are a few large arrays for the collector to trace rather
+// than a million heap entries and map nodes.
+public class OffHeapScheduleQueue implements ScheduleQueue {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  // slot layout: next time (epoch millis) when last positioned, heap position, id hash. The
+  // position of a free slot links to the next free slot.
+  private static final int SLOT_BYTES = 16;
+  private static final int KEY = 0;
+  private static final int POSITION = 8;
+  private static final int HASH = 12;
+
+  private ByteBuffer slots;
+  // heap position -> slot, prioritized based upon the next execution time of each schedule
+  private IntBuffer heap;
+  // slot -> context
+  private ScheduleContext[] contexts;
+  // id hash -> slot + 1, 0 is empty. Linear probing, kept at most half full.
+  private int[] index;
+
+  private int size;
+  // slots handed out so far, and the head of the free slot list (-1 when empty)
+  private int used;
+  private int free = -1;
+
+  public OffHeapScheduleQueue() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  @Override
+  public void add(ScheduleContext scheduleContext) {
+    if (find(scheduleContext.getId()) >= 0) {
+      update(scheduleContext);
+      return;
+    }
+    int slot = allocateSlot();
+    int hash = scheduleContext.getId().hashCode();
+    contexts[slot] = scheduleContext;
+    slots.putLong(slot * SLOT_BYTES + KEY, scheduleContext.getNextTimeMillis());
+    slots.putInt(slot * SLOT_BYTES + HASH, hash);
+    insertIndex(hash, slot);
+    heap.put(size, slot);
+    setPosition(slot, size++);
+    siftUp(size - 1);
+  }
+
+  @Override
+  public boolean remove(ScheduleContext scheduleContext) {
+    int i = find(scheduleContext.getId());
+    if (i < 0) {
+      return false;
+    }
+    int slot = index[i] - 1;
+    deleteIndex(i);
+    removeAt(position(slot));
+    freeSlot(slot);
+    return true;
+  }
+
+  @Override
+  public void update(ScheduleContext scheduleContext) {
+    int i = find(scheduleContext.getId());
+    if (i < 0) {
+      add(scheduleContext);
+      return;
+    }
+    int slot = index[i] - 1;
+    contexts[slot] = scheduleContext;
+    long previous = key(slot);
+    long key = scheduleContext.getNextTimeMillis();
+    slots.putLong(slot * SLOT_BYTES + KEY, key);
+    if (key < previous) {
+      siftUp(position(slot));
+    } else {
+      siftDown(position(slot));
+    }
+  }
+
+  @Override
+  public ScheduleContext pollDue(long now) {
+    if (size == 0 || key(heap.get(0)) > now) {
+      return null;
+    }
+    int slot = heap.get(0);
+    ScheduleContext head = contexts[slot];
+    deleteIndex(find(head.getId()));
+    removeAt(0);
+    freeSlot(slot);
+    return head;
+  }
+
+  @Override
+  public long nextDeadline() {
+    return size == 0 ? Long.MAX_VALUE : key(heap.get(0));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(contexts, 0, used, null);
+    Arrays.fill(index, 0);
+    size = 0;
+    used = 0;
+    free = -1;
+  }
+
+  private void allocate(int capacity) {
+    slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+    heap = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    contexts = new ScheduleContext[capacity];
+    index = new int[capacity * 2];
+  }
+
+  // double the capacity, copying the slots and heap and rebuilding the index
+  private void grow() {
+    ByteBuffer oldSlots = slots;
+    IntBuffer oldHeap = heap;
+    ScheduleContext[] oldContexts = contexts;
+    allocate(oldContexts.length * 2);
+    oldSlots.clear();
+    slots.put(oldSlots);
+    oldHeap.clear();
+    heap.put(oldHeap);
+    System.arraycopy(oldContexts, 0, contexts, 0, used);
+    for (int slot = 0; slot < used; slot++) {
+      if (contexts[slot] != null) {
+        insertIndex(slots.getInt(slot * SLOT_BYTES + HASH), slot);
+      }
+    }
+  }
+
+  private int allocateSlot() {
+    if (free >= 0) {
+      int slot = free;
+      free = position(slot);
+      return slot;
+    }
+    if (used == contexts.length) {
+      grow();
+    }
+    return used++;
+  }
+
+  private void freeSlot(int slot) {
+    contexts[slot] = null;
+    setPosition(slot, free);
+    free = slot;
+  }
+
+  // index position holding the id, -1 if it is not queued
+  private int find(String id) {
+    int hash = id.hashCode();
+    int mask = index.length - 1;
+    for (int i = home(hash, mask); index[i] != 0; i = (i + 1) & mask) {
+      int slot = index[i] - 1;
+      if (slots.getInt(slot * SLOT_BYTES + HASH) == hash && id.equals(contexts[slot].getId())) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void insertIndex(int hash, int slot) {
+    int mask = index.length - 1;
+    int i = home(hash, mask);
+    while (index[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    index[i] = slot + 1;
+  }
+
+  // empty an index position, shifting back later entries of the probe run so lookups still find
+  // them
+  private void deleteIndex(int i) {
+    int mask = index.length - 1;
+    int j = i;
+    while (true) {
+      j = (j + 1) & mask;
+      if (index[j] == 0) {
+        break;
+      }
+      int home = home(slots.getInt((index[j] - 1) * SLOT_BYTES + HASH), mask);
+      // leave the entry if its home lies cyclically in (i, j]
+      if (i <= j ? i < home && home <= j : i < home || home <= j) {
+        continue;
+      }
+      index[i] = index[j];
+      i = j;
+    }
+    index[i] = 0;
+  }
+
+  private static int home(int hash, int mask) {
+    int h = hash * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private long key(int slot) {
+    return slots.getLong(slot * SLOT_BYTES + KEY);
+  }
+
+  private int position(int slot) {
+    return slots.getInt(slot * SLOT_BYTES + POSITION);
+  }
+
+  private void setPosition(int slot, int position) {
+    slots.putInt(slot * SLOT_BYTES + POSITION, position);
+  }
+
+  private void removeAt(int position) {
+    int last = heap.get(--size);
+    if (position == size) {
+      return;
+    }
+    heap.put(position, last);
+    setPosition(last, position);
+    siftDown(position);
+    if (heap.get(position) == last) {
+      siftUp(position);
+    }
+  }
+
+  private void siftUp(int position) {
+    int slot = heap.get(position);
+    long key = key(slot);
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      int parentSlot = heap.get(parent);
+      if (key(parentSlot) <= key) {
+        break;
+      }
+      heap.put(position, parentSlot);
+      setPosition(parentSlot, position);
+      position = parent;
+    }
+    heap.put(position, slot);
+    setPosition(slot, position);
+  }
+
+  private void siftDown(int position) {
+    int slot = heap.get(position);
+    long key = key(slot);
+    int half = size >>> 1;
+    while (position < half) {
+      int child = (position << 1) + 1;
+      int right = child + 1;
+      if (right < size && key(heap.get(right)) < key(heap.get(child))) {
+        child = right;
+      }
+      int childSlot = heap.get(child);
+      if (key <= key(childSlot)) {
+        break;
+      }
+      heap.put(position, childSlot);
+      setPosition(childSlot, position);
+      position = child;
+    }
+    heap.put(position, slot);
+    setPosition(slot, position);
+  }
+}
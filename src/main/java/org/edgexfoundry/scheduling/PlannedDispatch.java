@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+
+// Events of a fired schedule and the time (epoch millis) they may be dispatched
+class PlannedDispatch implements Comparable<PlannedDispatch> {
+
+  private final long releaseTime;
+  private final ScheduleEvent[] events;
+
+  PlannedDispatch(long releaseTime, ScheduleEvent[] events) {
+    this.releaseTime = releaseTime;
+    this.events = events;
+  }
+
+  long getReleaseTime() {
+    return releaseTime;
+  }
+
+  ScheduleEvent[] getEvents() {
+    return events;
+  }
+
+  @Override
+  public int compareTo(PlannedDispatch other) {
+    return Long.compare(releaseTime, other.releaseTime);
+  }
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.edgexfoundry.domain.common.HTTPMethod;
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Protocol;
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+
+// Compact binary form of a schedule and its events, used to hold dormant schedule contexts on
+// heap or in a ScheduleSlabStore. Strings are length prefixed UTF-8, -1 for null.
+final class ScheduleCodec {
+
+  private static final int VERSION = 1;
+
+  private ScheduleCodec() {}
+
+  static byte[] encode(Schedule schedule, Iterable<ScheduleEvent> events) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      writeString(out, schedule.getId());
+      writeString(out, schedule.getName());
+      writeString(out, schedule.getStart());
+      writeString(out, schedule.getEnd());
+      writeString(out, schedule.getFrequency());
+      writeString(out, schedule.getCron());
+      out.writeBoolean(schedule.getRunOnce());
+      out.writeLong(schedule.getCreated());
+      out.writeLong(schedule.getModified());
+      out.writeLong(schedule.getOrigin());
+      for (ScheduleEvent event : events) {
+        out.writeBoolean(true);
+        writeEvent(out, event);
+      }
+      out.writeBoolean(false);
+    } catch (IOException e) {
+      // not thrown by a byte array stream
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  // decode a schedule, putting its events in order into events
+  static Schedule decode(byte[] bytes, Map<String, ScheduleEvent> events) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      int version = in.readByte();
+      if (version != VERSION) {
+        throw new IllegalStateException("unknown schedule encoding " + version);
+      }
+      Schedule schedule = new Schedule();
+      schedule.setId(readString(in));
+      schedule.setName(readString(in));
+      schedule.setStart(readString(in));
+      schedule.setEnd(readString(in));
+      schedule.setFrequency(readString(in));
+      schedule.setCron(readString(in));
+      schedule.setRunOnce(in.readBoolean());
+      schedule.setCreated(in.readLong());
+      schedule.setModified(in.readLong());
+      schedule.setOrigin(in.readLong());
+      while (in.readBoolean()) {
+        ScheduleEvent event = readEvent(in);
+        events.put(event.getId(), event);
+      }
+      return schedule;
+    } catch (IOException e) {
+      throw new IllegalStateException("corrupt schedule encoding", e);
+    }
+  }
+
+  private static void writeEvent(DataOutputStream out, ScheduleEvent event) throws IOException {
+    writeString(out, event.getId());
+    writeString(out, event.getName());
+    writeString(out, event.getParameters());
+    writeString(out, event.getSchedule());
+    writeString(out, event.getService());
+    out.writeLong(event.getCreated());
+    out.writeLong(event.getModified());
+    out.writeLong(event.getOrigin());
+    Addressable addressable = event.getAddressable();
+    out.writeBoolean(addressable != null);
+    if (addressable != null) {
+      writeString(out, addressable.getId());
+      writeString(out, addressable.getName());
+      writeString(out, addressable.getProtocol() == null ? null : addressable.getProtocol().name());
+      writeString(out, addressable.getMethod() == null ? null : addressable.getMethod().name());
+      writeString(out, addressable.getAddress());
+      out.writeInt(addressable.getPort());
+      writeString(out, addressable.getPath());
+      writeString(out, addressable.getPublisher());
+      writeString(out, addressable.getUser());
+      writeString(out, addressable.getPassword());
+      writeString(out, addressable.getTopic());
+      out.writeLong(addressable.getCreated());
+      out.writeLong(addressable.getModified());
+      out.writeLong(addressable.getOrigin());
+    }
+  }
+
+  private static ScheduleEvent readEvent(DataInputStream in) throws IOException {
+    ScheduleEvent event = new ScheduleEvent();
+    event.setId(readString(in));
+    event.setName(readString(in));
+    event.setParameters(readString(in));
+    event.setSchedule(readString(in));
+    event.setService(readString(in));
+    event.setCreated(in.readLong());
+    event.setModified(in.readLong());
+    event.setOrigin(in.readLong());
+    if (in.readBoolean()) {
+      Addressable addressable = new Addressable();
+      addressable.setId(readString(in));
+      addressable.setName(readString(in));
+      String protocol = readString(in);
+      addressable.setProtocol(protocol == null ? null : Protocol.valueOf(protocol));
+      String method = readString(in);
+      addressable.setMethod(method == null ? null : HTTPMethod.valueOf(method));
+      addressable.setAddress(readString(in));
+      addressable.setPort(in.readInt());
+      addressable.setPath(readString(in));
+      addressable.setPublisher(readString(in));
+      addressable.setUser(readString(in));
+      addressable.setPassword(readString(in));
+      addressable.setTopic(readString(in));
+      addressable.setCreated(in.readLong());
+      addressable.setModified(in.readLong());
+      addressable.setOrigin(in.readLong());
+      event.setAddressable(addressable);
+    }
+    return event;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
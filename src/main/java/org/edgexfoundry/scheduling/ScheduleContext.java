@@ -18,6 +18,7 @@
 
 package org.edgexfoundry.scheduling;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -26,8 +27,12 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.edgexfoundry.domain.meta.Schedule;
@@ -40,6 +45,8 @@ public class ScheduleContext {
           .getEdgeXLogger(ScheduleContext.class);
 
   private static final String ERR_SCH_EVENT = "schedule event ";
+  private static final ScheduleEvent[] NO_EVENTS = new ScheduleEvent[0];
+  private static final int FIRE_TIMES = 16;
 
   // Using for various things; run once, name, etc.
   Schedule schedule;
@@ -56,8 +63,35 @@ public class ScheduleContext {
   // end time
   private ZonedDateTime endTime;
 
-  // next time for this schedule to execute
-  private ZonedDateTime nextTime;
+  // compiled frequency, shared with other contexts using the same frequency
+  private Frequency frequency;
+
+  // compiled cron expression for a schedule without a frequency, used instead of the period and
+  // duration
+  private CronExpression cron;
+
+  // next time for this schedule to execute, in epoch millis. With the start, end and fixed
+  // frequency below it is the state read and advanced on every tick, held as primitives so a
+  // fixed frequency advances without allocating
+  private long nextTimeMillis;
+
+  // start and end in epoch millis, an unbounded end is Long.MAX_VALUE
+  private long startTimeMillis;
+  private long endTimeMillis;
+
+  // period + duration in millis for a frequency without a calendar part, 0 otherwise
+  private long fixedMillis;
+
+  // fire times (epoch millis) following next time for calendar periods and cron expressions,
+  // computed in the schedule's zone a batch at a time so most fires read their next time from
+  // the array. Allocated on first use, emptied by reset.
+  private long[] fireTimes;
+  private int fireTimeIndex;
+  private int fireTimeCount;
+
+  // for a frequency schedule next time is start + occurrence * (period + duration), anchored to
+  // the start so month ends and DST changes do not drift later occurrences
+  private long occurrence;
 
   // track execution iterations
   private long iterations;
@@ -65,10 +99,48 @@ public class ScheduleContext {
   // maximum times to execute, 0 is infinite
   private long maxIterations;
 
+  // when the schedule completed (epoch millis), for its retention
+  private long completedMillis;
+
+  // missed occurrences skipped or coalesced into a single fire by the misfire policy
+  private long skippedFires;
+  private long coalescedFires;
+
   // events to execute - event id to event
   private LinkedHashMap<String, ScheduleEvent> scheduleEvents;
 
+  // snapshot of the events, replaced (never modified) on every change so dispatch can iterate it
+  // without a lock or a copy
+  private volatile ScheduleEvent[] scheduleEventArray = NO_EVENTS;
+
+  // source of the current time, the system clock or the scheduler's virtual clock
+  private final Clock clock;
+
+  // the schedule and its events in compact form while the context is dormant, on heap or as a
+  // record of an off heap store, null while it is live. The schedule id, run once flag and event
+  // ids (the registry's own keys) are kept out of it for the queue and registry.
+  private byte[] dormant;
+  private ScheduleSlabStore dormantStore;
+  private int dormantHandle;
+  private String[] dormantEventIds;
+  private String scheduleId;
+  private boolean runOnce;
+
+  // kept out of the compact form for logging, which should not inflate the context
+  private String scheduleName;
+
+  // queued to be tiered on its shard's next tick, guarded by the scheduler's lock for the context
+  private boolean tierPending;
+
+  // when (epoch millis) its shard is to inflate it, 0 if not queued, guarded like tierPending
+  private long inflateMillis;
+
   public ScheduleContext(Schedule schedule) {
+    this(schedule, Clock.systemDefaultZone());
+  }
+
+  public ScheduleContext(Schedule schedule, Clock clock) {
+    this.clock = clock;
     scheduleEvents = new LinkedHashMap<>();
     reset(schedule);
   }
@@ -79,7 +151,7 @@ public class ScheduleContext {
   public boolean equals(Object obj) {
     if (obj instanceof ScheduleContext) {
       ScheduleContext sc = (ScheduleContext) obj;
-      return this.schedule.getId() == sc.getId();
+      return Objects.equals(getId(), sc.getId());
     }
     return false;
   }
@@ -89,45 +161,140 @@ public class ScheduleContext {
     final int prime = 31;
     final int primeMult = 53;
 
-    return new HashCodeBuilder(prime, primeMult).append(startTime).append(endTime).toHashCode();
+    return new HashCodeBuilder(prime, primeMult).append(getId()).toHashCode();
   }
 
+  // throws InvalidFrequencyException, leaving the context unchanged, if the schedule's frequency or
+  // cron expression is rejected
   public void reset(Schedule schedule) {
-    if ((this.schedule != null) && (this.schedule.getName() != schedule.getName())) {
+    Frequency compiled = Frequency.of(schedule);
+    inflate();
+    if ((this.schedule != null) && !Objects.equals(this.schedule.getName(), schedule.getName())) {
       scheduleEvents.clear();
+      publishScheduleEvents();
     }
     this.schedule = schedule;
+    this.scheduleId = schedule.getId();
+    this.scheduleName = schedule.getName();
+    this.runOnce = schedule.getRunOnce();
     // update this if/when iterations are added to the schedule
     this.maxIterations = (schedule.getRunOnce()) ? 1 : 0;
     this.iterations = 0;
 
+    Instant now = clock.instant();
     String start = schedule.getStart();
     String end = schedule.getEnd();
     // if start is empty, then use now (need to think about ever-spawning tasks)
     if (start == null || start.isEmpty()) {
       DateTimeFormatter formatter = DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0])
           .withZone(ZoneId.systemDefault());
-      start = formatter.format(Instant.now());
+      start = formatter.format(now);
     }
     this.startTime = parseTime(start);
+    this.endTime = endTimeOf(end);
 
+    // the compiled frequency, a schedule without a frequency uses its cron expression
+    this.frequency = compiled;
+    this.period = compiled.getPeriod();
+    this.duration = compiled.getDuration();
+    this.cron = compiled.getCron();
+    this.startTimeMillis = toEpochMilli(startTime);
+    this.endTimeMillis = toEpochMilli(endTime);
+    this.fixedMillis = fixedMillis(period, duration, cron);
+
+    // setup the next time the schedule will run
+    this.nextTimeMillis =
+        toEpochMilli(initNextTime(startTime, now.atZone(ZoneId.systemDefault()), period, duration));
+    this.fireTimeCount = 0;
+
+    // clear any schedule events as required
+
+    logger.debug("reset() " + this.toString());
+  }
+
+  private ZonedDateTime endTimeOf(String end) {
     // if end is empty, then use max
     if (end == null || end.isEmpty()) {
       DateTimeFormatter formatter = DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0])
           .withZone(ZoneId.systemDefault());
       end = formatter.format(ZonedDateTime.of(LocalDateTime.MAX, ZoneId.systemDefault()));
     }
-    this.endTime = parseTime(end);
+    return parseTime(end);
+  }
 
-    // get the period and duration from the frequency string
-    parsePeriodAndDuration(schedule.getFrequency());
+  // Serialize the schedule and its events, off heap into the store or on heap if it is null, and
+  // release them with the times derived from them. The context keeps its place in the queue and
+  // is inflated again ahead of its next fire, or on first use.
+  public void compact(ScheduleSlabStore store) {
+    if (isDormant()) {
+      return;
+    }
+    byte[] bytes = ScheduleCodec.encode(schedule, scheduleEvents.values());
+    if (store == null) {
+      dormant = bytes;
+    } else {
+      dormantStore = store;
+      dormantHandle = store.put(bytes);
+    }
+    dormantEventIds = scheduleEvents.keySet().toArray(new String[scheduleEvents.size()]);
+    schedule = null;
+    scheduleEvents = null;
+    scheduleEventArray = null;
+    startTime = null;
+    endTime = null;
+    fireTimes = null;
+    fireTimeCount = 0;
+  }
 
-    // setup the next time the schedule will run
-    this.nextTime = initNextTime(startTime, ZonedDateTime.now(), period, duration);
+  boolean isTierPending() {
+    return tierPending;
+  }
 
-    // clear any schedule events as required
+  void setTierPending(boolean tierPending) {
+    this.tierPending = tierPending;
+  }
 
-    logger.debug("reset() " + this.toString());
+  long getInflateMillis() {
+    return inflateMillis;
+  }
+
+  void setInflateMillis(long inflateMillis) {
+    this.inflateMillis = inflateMillis;
+  }
+
+  public boolean isDormant() {
+    return dormant != null || dormantStore != null;
+  }
+
+  // decode the compact form, done ahead of the next fire by the scheduler's tier pass
+  void inflate() {
+    if (!isDormant()) {
+      return;
+    }
+    byte[] bytes = dormant;
+    if (dormantStore != null) {
+      bytes = dormantStore.remove(dormantHandle);
+    }
+    LinkedHashMap<String, ScheduleEvent> events = new LinkedHashMap<>();
+    schedule = ScheduleCodec.decode(bytes, events);
+    events.replaceAll((id, scheduleEvent) -> ScheduleEventFlyweights.intern(scheduleEvent));
+    scheduleEvents = events;
+    publishScheduleEvents();
+    startTime = Instant.ofEpochMilli(startTimeMillis).atZone(ZoneId.systemDefault());
+    endTime = endTimeOf(schedule.getEnd());
+    dormant = null;
+    dormantStore = null;
+    dormantEventIds = null;
+  }
+
+  // release the compact form of a context being dropped without decoding it, the context must not
+  // be used afterwards
+  void discard() {
+    if (dormantStore != null) {
+      dormantStore.free(dormantHandle);
+    }
+    dormant = null;
+    dormantStore = null;
   }
 
   private ZonedDateTime parseTime(String time) {
@@ -142,90 +309,127 @@ public class ScheduleContext {
     return zdt;
   }
 
+  // period + duration in whole millis, 0 for calendar periods, cron expressions, run once
+  // schedules and sub-millisecond remainders, all of which step a zoned date time
+  private static long fixedMillis(Period period, Duration duration, CronExpression cron) {
+    if (cron != null || !period.isZero() || duration.getNano() % 1000000 != 0) {
+      return 0;
+    }
+    try {
+      return duration.toMillis();
+    } catch (ArithmeticException e) {
+      return 0;
+    }
+  }
+
+  // epoch millis of a time, saturated for times out of range such as the unbounded end
+  private static long toEpochMilli(ZonedDateTime time) {
+    try {
+      return time.toInstant().toEpochMilli();
+    } catch (ArithmeticException e) {
+      return time.getYear() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+    }
+  }
+
   private ZonedDateTime initNextTime(ZonedDateTime start, ZonedDateTime now, Period period, Duration duration) {
+    // a cron schedule fires at its first time at or after the start that is still to come
+    if (cron != null) {
+      return start.compareTo(now) > 0 ? cron.next(start.minusSeconds(1)) : cron.next(now);
+    }
     // if the start time is in the future next will just be start
-    ZonedDateTime next = start;
-    // if the start time is in the past, increment until we find the next time to execute
+    occurrence = 0;
+    // if the start time is in the past, find the first occurrence after now
     // cannot call isComplete() here as it depends on nextTime
-    if (startTime.compareTo(now) <= 0 && !schedule.getRunOnce()) {
-      // TODO: optimize the below. consider a one-second timer case...
-      // For example if only a single unit, e.g. only minutes, then can optimize relative to start
-      // if there are more than one unit, then the loop may be best as it will be difficult
-      while (next.compareTo(now) <= 0) {
-        next = next.plus(period);
-        next = next.plus(duration);
-      }
+    if (start.compareTo(now) <= 0 && !schedule.getRunOnce()
+        && !(period.isZero() && duration.isZero())) {
+      occurrence = firstOccurrenceAfter(start, now, period, duration);
     }
-    return next;
+    return occurrenceTime(start, occurrence, period, duration);
   }
 
-  private void parsePeriodAndDuration(String frequency) {
-
-    int periodStart = frequency.indexOf('P');
-    int timeStart = frequency.indexOf('T');
-    String freq = frequency;
-
-    this.period = Period.ZERO;
-    this.duration = Duration.ZERO;
-
-    // Parse out the period (date)
-    try {
-      // If there is a duration 'T', remove it
-      if (timeStart != -1)
-        freq = frequency.substring(periodStart, timeStart);
-      this.period = Period.parse(freq);
-    } catch (IndexOutOfBoundsException | DateTimeParseException e) {
-      logger.error("parsePeriodAndDuration() failed to parse period from '" + freq + "'");
+  // index of the first occurrence after now, for a start at or before now
+  private static long firstOccurrenceAfter(ZonedDateTime start, ZonedDateTime now, Period period,
+      Duration duration) {
+    Duration elapsed = Duration.between(start, now);
+    if (period.isZero()) {
+      // a fixed duration divides exactly
+      try {
+        return elapsed.toNanos() / duration.toNanos() + 1;
+      } catch (ArithmeticException e) {
+        // more than 292 years of nanoseconds, estimate below
+      }
+    }
+    // estimate from the average length of a month and correct by a step or two as calendar
+    // periods vary in length
+    double elapsedSeconds = elapsed.getSeconds() + elapsed.getNano() / 1e9;
+    double frequencySeconds = period.toTotalMonths() * (365.2425 * 86400 / 12)
+        + period.getDays() * 86400.0 + duration.getSeconds() + duration.getNano() / 1e9;
+    long estimate = Math.max(0, (long) (elapsedSeconds / frequencySeconds));
+    while (estimate > 0
+        && occurrenceTime(start, estimate, period, duration).compareTo(now) > 0) {
+      estimate--;
+    }
+    while (occurrenceTime(start, estimate, period, duration).compareTo(now) <= 0) {
+      estimate++;
     }
+    return estimate;
+  }
 
-    // Parse out the duration (time)
-    try {
-      // Make sure there is both a 'P' and 'T'
-      if (periodStart != -1 && timeStart != -1) {
-        freq = frequency.substring(timeStart, frequency.length());
-        this.duration = Duration.parse("P" + freq);
-      }
-    } catch (IndexOutOfBoundsException | DateTimeParseException e) {
-      logger.error("parsePeriodAndDuration() failed to parse duration from 'P" + freq + "'");
+  // a fixed frequency has no period term, so a sub-second frequency from an old start may run
+  // past Integer.MAX_VALUE occurrences
+  private static ZonedDateTime occurrenceTime(ZonedDateTime start, long occurrence, Period period,
+      Duration duration) {
+    ZonedDateTime time = start;
+    if (!period.isZero()) {
+      time = time.plus(period.multipliedBy(Math.toIntExact(occurrence)));
     }
+    return time.plus(duration.multipliedBy(occurrence));
   }
 
   public boolean isComplete() {
-    return isComplete(ZonedDateTime.now());
+    return isComplete(clock.millis());
   }
 
-  private boolean isComplete(ZonedDateTime now) {
+  // complete as of now (epoch millis), for callers that read the clock once
+  public boolean isComplete(long now) {
     // - start time is in the past and it's a run-once
     // - next time is greater than end time
     // - maxIterations is defined and iterations >= maxIterations
-    boolean complete = ((startTime.compareTo(now) < 0 && schedule.getRunOnce())
-        || (nextTime.compareTo(endTime) > 0)
+    boolean complete = ((startTimeMillis < now && runOnce)
+        || (nextTimeMillis > endTimeMillis)
         || ((maxIterations != 0) && (iterations >= maxIterations)));
     return (complete);
   }
 
   public String getName() {
-    return schedule.getName();
+    return scheduleName;
   }
 
   public String getId() {
-    return schedule.getId();
+    return scheduleId;
   }
 
   public String getInfo() {
-    return schedule.getId() + " '" + schedule.getName() + "'";
+    return scheduleId + " '" + scheduleName + "'";
   }
 
   public ZonedDateTime getStartTime() {
+    inflate();
     return startTime;
   }
 
   public ZonedDateTime getEndTime() {
+    inflate();
     return endTime;
   }
 
+  // times are parsed in the system zone, so the next time does not need the context inflated
   public ZonedDateTime getNextTime() {
-    return nextTime;
+    return Instant.ofEpochMilli(nextTimeMillis).atZone(ZoneId.systemDefault());
+  }
+
+  public long getNextTimeMillis() {
+    return nextTimeMillis;
   }
 
   public long getMaxIterations() {
@@ -233,33 +437,200 @@ public class ScheduleContext {
   }
 
   public void updateNextTime() {
-    if (!isComplete()) {
-      nextTime = nextTime.plus(period);
-      nextTime = nextTime.plus(duration);
+    updateNextTime(clock.millis());
+  }
+
+  public void updateNextTime(long now) {
+    if (!isComplete(now)) {
+      nextTimeMillis = followingMillis();
+      if (fixedMillis == 0) {
+        fireTimeIndex++;
+        fireTimeCount--;
+      }
+      occurrence++;
     }
   }
 
+  // the occurrence after next time, in epoch millis
+  private long followingMillis() {
+    if (fixedMillis != 0) {
+      return startTimeMillis + (occurrence + 1) * fixedMillis;
+    }
+    if (fireTimeCount == 0) {
+      fillFireTimes();
+    }
+    return fireTimes[fireTimeIndex];
+  }
+
+  // compute the next batch of fire times after next time, stopping early past the end time
+  private void fillFireTimes() {
+    inflate();
+    if (fireTimes == null) {
+      fireTimes = new long[FIRE_TIMES];
+    }
+    fireTimeIndex = 0;
+    fireTimeCount = 0;
+    ZonedDateTime time = cron != null ? getNextTime() : null;
+    long fireTime;
+    do {
+      if (cron != null) {
+        time = cron.next(time);
+        fireTime = toEpochMilli(time);
+      } else {
+        fireTime = occurrenceMillis(occurrence + 1 + fireTimeCount);
+      }
+      fireTimes[fireTimeCount++] = fireTime;
+    } while (fireTimeCount < FIRE_TIMES && fireTime <= endTimeMillis);
+  }
+
+  // epoch millis of an occurrence, as occurrenceTime but with the period applied by field and the
+  // duration added as elapsed time to avoid the intermediate objects
+  private long occurrenceMillis(long occurrence) {
+    ZonedDateTime time = startTime;
+    if (period.toTotalMonths() != 0) {
+      time = time.plusMonths(period.toTotalMonths() * occurrence);
+    }
+    if (period.getDays() != 0) {
+      time = time.plusDays(period.getDays() * occurrence);
+    }
+    long nanos = time.getNano() + duration.getNano() * occurrence;
+    long seconds = time.toEpochSecond() + duration.getSeconds() * occurrence
+        + Math.floorDiv(nanos, 1000000000L);
+    return seconds * 1000 + Math.floorMod(nanos, 1000000000L) / 1000000;
+  }
+
+  public Frequency getFrequency() {
+    return frequency;
+  }
+
+  public CronExpression getCron() {
+    return cron;
+  }
+
   public long getIterations() {
     return iterations;
   }
 
+  // advance past every occurrence due at or before epochMilli, returns the number passed
+  public long skipDue(long epochMilli) {
+    long skipped = 0;
+    if (cron == null && period.isZero() && duration.isZero()) {
+      return skipped;
+    }
+    if (fixedMillis != 0) {
+      return isComplete(epochMilli) ? 0 : skipFixed(fixedOccurrenceAfter(epochMilli));
+    }
+    while (!isComplete(epochMilli) && getNextTimeMillis() <= epochMilli) {
+      updateNextTime(epochMilli);
+      skipped++;
+    }
+    return skipped;
+  }
+
+  // advance to the latest occurrence due at or before epochMilli, returns the number passed
+  public long skipToLatestDue(long epochMilli) {
+    long skipped = 0;
+    if (cron == null && period.isZero() && duration.isZero()) {
+      return skipped;
+    }
+    if (fixedMillis != 0) {
+      return isComplete(epochMilli) ? 0 : skipFixed(fixedOccurrenceAfter(epochMilli) - 1);
+    }
+    while (!isComplete(epochMilli) && followingMillis() <= epochMilli) {
+      updateNextTime(epochMilli);
+      skipped++;
+    }
+    return skipped;
+  }
+
+  // advance a fixed frequency to an occurrence in one step, as updateNextTime would one at a time
+  // it stops at the first occurrence past the end, returns the number passed
+  private long skipFixed(long target) {
+    if (endTimeMillis != Long.MAX_VALUE) {
+      target = Math.min(target, fixedOccurrenceAfter(endTimeMillis));
+    }
+    if (target <= occurrence) {
+      return 0;
+    }
+    long skipped = target - occurrence;
+    occurrence = target;
+    nextTimeMillis = startTimeMillis + occurrence * fixedMillis;
+    return skipped;
+  }
+
+  // index of the first occurrence of a fixed frequency after epochMilli
+  private long fixedOccurrenceAfter(long epochMilli) {
+    return Math.floorDiv(epochMilli - startTimeMillis, fixedMillis) + 1;
+  }
+
+  public long getCompletedMillis() {
+    return completedMillis;
+  }
+
+  public void setCompletedMillis(long completedMillis) {
+    this.completedMillis = completedMillis;
+  }
+
+  public long getSkippedFires() {
+    return skippedFires;
+  }
+
+  public void addSkippedFires(long skipped) {
+    skippedFires += skipped;
+  }
+
+  public long getCoalescedFires() {
+    return coalescedFires;
+  }
+
+  public void addCoalescedFires(long coalesced) {
+    coalescedFires += coalesced;
+  }
+
+  // read only view of the events, changed through the add, update and remove methods
   public Map<String, ScheduleEvent> getScheduleEvents() {
-    return scheduleEvents;
+    inflate();
+    return Collections.unmodifiableMap(scheduleEvents);
+  }
+
+  // ids of the events, read without inflating the context
+  Collection<String> getScheduleEventIds() {
+    if (isDormant()) {
+      return Collections.unmodifiableList(Arrays.asList(dormantEventIds));
+    }
+    return Collections.unmodifiableSet(scheduleEvents.keySet());
+  }
+
+  // the events in insertion order, the array must not be modified
+  public ScheduleEvent[] getScheduleEventArray() {
+    inflate();
+    return scheduleEventArray;
+  }
+
+  private void publishScheduleEvents() {
+    scheduleEventArray =
+        scheduleEvents.isEmpty() ? NO_EVENTS : scheduleEvents.values().toArray(NO_EVENTS);
   }
 
   public void updateIterations() {
-    if (!isComplete())
+    updateIterations(clock.millis());
+  }
+
+  public void updateIterations(long now) {
+    if (!isComplete(now))
       iterations = iterations + 1;
   }
 
   @Override
   public String toString() {
+    inflate();
     return "ScheduleContext [id =" + getId() + " name=" + getName() + ", start="
-        + startTime.toString() + ", end=" + endTime.toString() + ", next=" + nextTime.toString()
+        + startTime.toString() + ", end=" + endTime.toString() + ", next=" + getNextTime().toString()
         + ", complete=" + isComplete() + "]";
   }
 
   public boolean addScheduleEvent(ScheduleEvent scheduleEvent) {
+    inflate();
     logger.info("adding schedule event " + scheduleEvent.getId() + " '" + scheduleEvent.getName()
         + "' to schedule " + getInfo());
     if (scheduleEvents.containsKey(scheduleEvent.getId())) {
@@ -267,13 +638,15 @@ public class ScheduleContext {
           ERR_SCH_EVENT + scheduleEvent.getId() + " " + scheduleEvent.getName() + " exists.");
       return false;
     }
-    scheduleEvents.put(scheduleEvent.getId(), scheduleEvent);
+    scheduleEvents.put(scheduleEvent.getId(), ScheduleEventFlyweights.intern(scheduleEvent));
+    publishScheduleEvents();
     logger.info("added schedule event " + scheduleEvent.getId() + " '" + scheduleEvent.getName()
         + "' to schedule " + getInfo());
     return true;
   }
 
   public boolean updateScheduleEvent(ScheduleEvent scheduleEvent) {
+    inflate();
     logger.info("updating schedule event " + scheduleEvent.getId() + " '" + scheduleEvent.getName()
         + "' of schedule " + getInfo());
     if (!scheduleEvents.containsKey(scheduleEvent.getId())) {
@@ -281,19 +654,22 @@ public class ScheduleContext {
           ERR_SCH_EVENT + scheduleEvent.getId() + " '" + scheduleEvent.getName() + " not found");
       return false;
     }
-    scheduleEvents.put(scheduleEvent.getId(), scheduleEvent);
+    scheduleEvents.put(scheduleEvent.getId(), ScheduleEventFlyweights.intern(scheduleEvent));
+    publishScheduleEvents();
     logger.info("updated schedule event " + scheduleEvent.getId() + " '" + scheduleEvent.getName()
         + "' of schedule " + getInfo());
     return true;
   }
 
   public boolean removeScheduleEventById(String id) {
+    inflate();
     logger.info("removing schedule event " + id);
     if (!scheduleEvents.containsKey(id)) {
       logger.error(ERR_SCH_EVENT + id + " not found");
       return false;
     }
     scheduleEvents.remove(id);
+    publishScheduleEvents();
     logger.info("removed schedule event " + id);
     return true;
   }
@@ -18,7 +18,21 @@
 
 package org.edgexfoundry.scheduling;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,9 +43,48 @@ public class ScheduleEventExecutor {
       org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
           .getEdgeXLogger(ScheduleEventExecutor.class);
 
+  // what to do with an event when the dispatch queue is full
+  static final String CALLER_RUNS = "caller_runs";
+  static final String DISCARD = "discard";
+
+  // where events run, on the worker pool or each on its own virtual thread
+  static final String POOL = "pool";
+  static final String VIRTUAL = "virtual";
+
   @Autowired
   ScheduleEventHTTPExecutor httpExecutor;
 
+  // events run on a pool of worker threads with a bounded queue, so a slow target holds a worker
+  // rather than a shard's dispatch thread. 0 workers runs them on the caller.
+  private int workers = 8;
+  private int queueCapacity = 1000;
+  private boolean discardRejected;
+
+  // virtual threads need JDK 21 or later, found by reflection so the service still builds and runs
+  // on Java 8. Events in flight on virtual threads are capped, past the cap the rejection policy
+  // applies as it does to a full queue.
+  private volatile boolean virtualThreads;
+  private int maxInFlight = 10000;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  // per target concurrency limits, null when events are not limited by target
+  private volatile TargetBulkheads<EventTask> bulkheads;
+
+  // created on first dispatch so the settings above are applied
+  private volatile ThreadPoolExecutor pool;
+  private volatile ExecutorService virtualExecutor;
+  private final AtomicInteger threads = new AtomicInteger();
+
+  // events that found the queue full, and those of them dropped
+  private final LongAdder rejected = new LongAdder();
+
+  // events rejected while this thread runs a rejected event, such as the held events its calls
+  // hand their slots to, wait their turn here rather than recurse
+  private final ThreadLocal<Deque<EventTask>> rejecting = new ThreadLocal<>();
+  private final LongAdder discarded = new LongAdder();
+  // events dropped by their target's bulkhead
+  private final LongAdder shed = new LongAdder();
+
   ScheduleEventExecutor() {
     httpExecutor = new ScheduleEventHTTPExecutor();
   }
@@ -47,8 +100,386 @@ public class ScheduleEventExecutor {
     }
   }
 
+  // events snapshot of a schedule context, iterated without an iterator
+  public void execute(ScheduleEvent[] events) {
+    if (events == null) {
+      logger.error("schedule event list is null");
+    } else {
+      logger.debug("schedule event list contains " + events.length + " events");
+      for (int i = 0; i < events.length; i++) {
+        execute(events[i]);
+      }
+    }
+  }
+
   public void execute(ScheduleEvent event) {
     logger.info("executing event " + event.getId() + " '" + event.getName() + "'");
-    httpExecutor.execute(event);
+    TargetBulkheads<EventTask> limits = bulkheads;
+    String target = limits == null ? null : TargetBulkheads.targetOf(event.getAddressable());
+    EventTask task = new EventTask(event, target);
+    if (target == null) {
+      dispatch(task);
+      return;
+    }
+    switch (limits.submit(target, task)) {
+      case ADMITTED:
+        dispatch(task);
+        break;
+      case SHED:
+        shed.increment();
+        logger.error("target " + target + " at its limit, shed schedule event " + event.getId()
+            + " '" + event.getName() + "'");
+        break;
+      default:
+        // held until one of the target's calls completes
+        break;
+    }
+  }
+
+  // drop the compiled request of an event that was updated or removed
+  public void invalidate(String eventId) {
+    httpExecutor.invalidate(eventId);
+  }
+
+  // worker threads, applied before the first dispatch. 0 runs events in pool mode on the caller,
+  // still within their targets' limits.
+  void setWorkers(int workers) {
+    this.workers = workers;
+    if (workers <= 0) {
+      logger.info("no dispatch workers, schedule events not on virtual threads run on the caller");
+    }
+  }
+
+  // events queued for a worker before the rejection policy applies, applied before the first
+  // dispatch
+  void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = Math.max(1, queueCapacity);
+  }
+
+  // caller_runs runs a rejected event on the caller (the shard's dispatch thread), so a full queue
+  // slows that shard's dispatch. discard drops it.
+  void setRejectionPolicy(String policy) {
+    if (DISCARD.equalsIgnoreCase(policy)) {
+      discardRejected = true;
+    } else {
+      if (!CALLER_RUNS.equalsIgnoreCase(policy)) {
+        logger.error("unknown dispatch rejection policy '" + policy + "', using " + CALLER_RUNS);
+      }
+      discardRejected = false;
+    }
+  }
+
+  // pool or virtual, virtual falls back to the pool when the JDK has no virtual threads. Applied
+  // before the first dispatch.
+  void setDispatchMode(String mode) {
+    if (VIRTUAL.equalsIgnoreCase(mode)) {
+      virtualThreads = true;
+    } else {
+      if (!POOL.equalsIgnoreCase(mode)) {
+        logger.error("unknown dispatch mode '" + mode + "', using " + POOL);
+      }
+      virtualThreads = false;
+    }
+  }
+
+  // events running on virtual threads at once before the rejection policy applies
+  void setMaxInFlight(int maxInFlight) {
+    this.maxInFlight = Math.max(1, maxInFlight);
+  }
+
+  // limit the events in flight to each target (host:port) starting from limit, adapting between
+  // min and max by the calls' outcome and latency against latencyMillis. Events past a target's
+  // limit are held, at most maxQueued per target, or shed. A limit of 0 or less turns the limits
+  // off. Applied before the first dispatch.
+  void setBulkheads(int limit, int min, int max, long latencyMillis, int maxQueued) {
+    if (limit <= 0) {
+      bulkheads = null;
+    } else {
+      bulkheads = new TargetBulkheads<>(limit, min, max, latencyMillis, maxQueued);
+      logger.info("limiting schedule events per target from " + limit + " in flight, between "
+          + min + " and " + max + ", holding " + maxQueued + " past the limit");
+    }
+  }
+
+  // stop the workers, events still queued are dropped. A later dispatch starts a new pool.
+  synchronized void shutdown() {
+    if (pool != null) {
+      int dropped = pool.shutdownNow().size();
+      if (dropped > 0) {
+        logger.info("schedule event dispatch stopped with " + dropped + " events queued");
+      }
+      pool = null;
+    }
+    if (virtualExecutor != null) {
+      virtualExecutor.shutdownNow();
+      virtualExecutor = null;
+    }
+  }
+
+  // events waiting for a worker
+  public int getQueueDepth() {
+    ThreadPoolExecutor current = pool;
+    return current == null ? 0 : current.getQueue().size();
+  }
+
+  // workers running an event, or events running on virtual threads
+  public int getActiveWorkers() {
+    if (virtualThreads) {
+      return inFlight.get();
+    }
+    ThreadPoolExecutor current = pool;
+    return current == null ? 0 : current.getActiveCount();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  public long getDiscarded() {
+    return discarded.sum();
+  }
+
+  public long getShed() {
+    return shed.sum();
+  }
+
+  // current limit of each target, empty when events are not limited by target
+  public Map<String, Integer> getTargetLimits() {
+    TargetBulkheads<EventTask> limits = bulkheads;
+    return limits == null ? Collections.emptyMap() : limits.getLimits();
+  }
+
+  // events held past their target's limit
+  public int getTargetQueued() {
+    TargetBulkheads<EventTask> limits = bulkheads;
+    return limits == null ? 0 : limits.getQueued();
+  }
+
+  private void dispatch(EventTask task) {
+    if (virtualThreads) {
+      executeVirtual(task);
+    } else if (workers <= 0) {
+      task.run();
+    } else {
+      pool().execute(task);
+    }
+  }
+
+  private ThreadPoolExecutor pool() {
+    ThreadPoolExecutor result = pool;
+    if (result == null) {
+      synchronized (this) {
+        if (pool == null) {
+          pool = createPool();
+        }
+        result = pool;
+      }
+    }
+    return result;
+  }
+
+  private void executeVirtual(EventTask task) {
+    ExecutorService executor = virtualExecutor();
+    if (executor == null) {
+      // virtual threads were found to be unsupported, dispatch as in pool mode
+      dispatch(task);
+      return;
+    }
+    if (inFlight.incrementAndGet() > maxInFlight) {
+      inFlight.decrementAndGet();
+      reject(task, false);
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          task.run();
+        } finally {
+          inFlight.decrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      inFlight.decrementAndGet();
+      reject(task, true);
+    }
+  }
+
+  private ExecutorService virtualExecutor() {
+    ExecutorService result = virtualExecutor;
+    if (result == null) {
+      synchronized (this) {
+        if (virtualExecutor == null && virtualThreads) {
+          virtualExecutor = createVirtualExecutor();
+          if (virtualExecutor == null) {
+            logger.error("virtual threads are not supported by this JDK, dispatching schedule "
+                + "events on the worker pool");
+            virtualThreads = false;
+          } else {
+            logger.info("dispatching schedule events on virtual threads, at most " + maxInFlight
+                + " in flight");
+          }
+        }
+        result = virtualExecutor;
+      }
+    }
+    return result;
+  }
+
+  // a thread per task executor of named virtual threads, null before JDK 21
+  private static ExecutorService createVirtualExecutor() {
+    try {
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderType.getMethod("name", String.class, long.class).invoke(builder,
+          "scheduler-event-virtual-", 1L);
+      ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+      return (ExecutorService) Executors.class
+          .getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private ThreadPoolExecutor createPool() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable, "scheduler-event-" + threads.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new Rejection());
+    // idle workers exit, a quiet gateway holds no dispatch threads
+    executor.allowCoreThreadTimeOut(true);
+    logger.info("dispatching schedule events on " + workers + " workers, queue of "
+        + queueCapacity + (discardRejected ? ", discarding" : ", caller runs") + " when full");
+    return executor;
+  }
+
+  private final class EventTask implements Runnable {
+    private final ScheduleEvent event;
+    // the target whose bulkhead slot the event holds, null when not limited
+    private final String target;
+
+    private EventTask(ScheduleEvent event, String target) {
+      this.event = event;
+      this.target = target;
+    }
+
+    @Override
+    public void run() {
+      if (virtualThreads || workers > 0) {
+        call(null);
+        return;
+      }
+      // on the caller, events held for the target that take over this thread's slots run in turn
+      // rather than recursively
+      ArrayDeque<EventTask> tasks = new ArrayDeque<>();
+      EventTask task = this;
+      while (task != null) {
+        task.call(tasks);
+        task = tasks.poll();
+      }
+    }
+
+    // make the call, adding the held events that take over its slot to local, to run next on
+    // this thread, or dispatching them when local is null
+    private void call(Deque<EventTask> local) {
+      if (target == null) {
+        httpExecutor.execute(event);
+        return;
+      }
+      long start = System.nanoTime();
+      boolean succeeded = false;
+      boolean completed = false;
+      try {
+        succeeded = httpExecutor.execute(event);
+        completed = true;
+      } finally {
+        // the slot passes to the next event held for the target, if any
+        List<EventTask> next = bulkheads.release(target, succeeded, System.nanoTime() - start);
+        if (local != null && completed) {
+          local.addAll(next);
+        } else {
+          dispatchAll(next);
+        }
+      }
+    }
+
+    // give up the slot without a call, passing it on. Once dispatch has stopped the events held
+    // for the target are dropped instead.
+    private void cancel(boolean stopped) {
+      if (target == null) {
+        return;
+      }
+      // slots to give up, each dropped event held one
+      int slots = 1;
+      while (slots > 0) {
+        List<EventTask> next = bulkheads.cancel(target);
+        slots--;
+        if (!stopped) {
+          dispatchAll(next);
+          return;
+        }
+        discarded.add(next.size());
+        slots += next.size();
+      }
+    }
+  }
+
+  private void dispatchAll(List<EventTask> tasks) {
+    for (EventTask task : tasks) {
+      dispatch(task);
+    }
+  }
+
+  // run or drop an event that found the queue full or too many in flight, or dispatch stopped
+  private void reject(EventTask task, boolean stopped) {
+    rejected.increment();
+    if (stopped) {
+      ScheduleEvent event = task.event;
+      discarded.increment();
+      logger.error("dispatch stopped, dropped schedule event " + event.getId() + " '"
+          + event.getName() + "'");
+      task.cancel(true);
+      return;
+    }
+    Deque<EventTask> pending = rejecting.get();
+    if (pending != null) {
+      pending.add(task);
+      return;
+    }
+    pending = new ArrayDeque<>();
+    rejecting.set(pending);
+    try {
+      for (EventTask next = task; next != null; next = pending.poll()) {
+        try {
+          runRejected(next);
+        } catch (RuntimeException e) {
+          // keep going, the events queued behind it hold their targets' slots
+          logger.error("failed to run schedule event " + next.event.getId() + ": "
+              + e.getMessage());
+        }
+      }
+    } finally {
+      rejecting.remove();
+    }
+  }
+
+  private void runRejected(EventTask task) {
+    ScheduleEvent event = task.event;
+    if (discardRejected) {
+      discarded.increment();
+      logger.error("dispatch at capacity, dropped schedule event " + event.getId() + " '"
+          + event.getName() + "'");
+      task.cancel(false);
+    } else {
+      task.run();
+    }
+  }
+
+  private final class Rejection implements RejectedExecutionHandler {
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+      reject((EventTask) task, executor.isShutdown());
+    }
   }
 }
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.edgexfoundry.domain.common.HTTPMethod;
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Protocol;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+
+// Canonical instances of the parts of schedule events that repeat across events. Thousands of
+// events target the same host and path with the same payload, so the events held by the contexts
+// share one Addressable per distinct value, one copy of each identifier (service, schedule,
+// address, path), of each URL prefix and of each payload. Strings are canonicalized in a bounded
+// map rather than the JVM string table, and payloads over MAX_POOLED_PAYLOAD chars and credentials
+// are never pooled, so they are not held beyond the events that carry them. Canonical
+// addressables are weakly held and dropped once no event refers to them, they must be treated
+// as read only.
+final class ScheduleEventFlyweights {
+
+  // most distinct strings kept, the least recently used are dropped past it
+  static final int MAX_IDENTIFIERS = 4096;
+
+  // longest payload pooled, longer ones are kept by their events only
+  static final int MAX_POOLED_PAYLOAD = 1024;
+
+  // addressable value -> canonical addressable, guarded by the class monitor
+  private static final Map<AddressableKey, CanonicalReference> addressables = new HashMap<>();
+  private static final ReferenceQueue<Addressable> released = new ReferenceQueue<>();
+
+  // identifier, URL prefix or payload -> canonical instance in access order, guarded by the class monitor
+  private static final LinkedHashMap<String, String> identifiers =
+      new LinkedHashMap<String, String>(256, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+          return size() > MAX_IDENTIFIERS;
+        }
+      };
+
+  private ScheduleEventFlyweights() {}
+
+  // a copy of the event with the canonical addressable, identifiers and payload, the event is not
+  // changed
+  static ScheduleEvent intern(ScheduleEvent scheduleEvent) {
+    ScheduleEvent copy = new ScheduleEvent();
+    copy.setId(scheduleEvent.getId());
+    copy.setName(scheduleEvent.getName());
+    copy.setParameters(payload(scheduleEvent.getParameters()));
+    copy.setSchedule(canonical(scheduleEvent.getSchedule()));
+    copy.setService(canonical(scheduleEvent.getService()));
+    copy.setAddressable(intern(scheduleEvent.getAddressable()));
+    copy.setCreated(scheduleEvent.getCreated());
+    copy.setModified(scheduleEvent.getModified());
+    copy.setOrigin(scheduleEvent.getOrigin());
+    return copy;
+  }
+
+  static synchronized Addressable intern(Addressable addressable) {
+    if (addressable == null) {
+      return null;
+    }
+    expunge();
+    AddressableKey key = new AddressableKey(addressable);
+    CanonicalReference reference = addressables.get(key);
+    Addressable canonical = reference == null ? null : reference.get();
+    if (canonical == null) {
+      // the key holds the canonical identifiers, so the canonical copy shares them
+      canonical = key.toAddressable();
+      addressables.put(key, new CanonicalReference(canonical, key));
+    }
+    return canonical;
+  }
+
+  // the canonical instance of a short repeating identifier
+  static synchronized String canonical(String value) {
+    if (value == null) {
+      return null;
+    }
+    String canonical = identifiers.putIfAbsent(value, value);
+    return canonical == null ? value : canonical;
+  }
+
+  // the canonical instance of a payload, or the payload itself if it is too long to pool
+  static String payload(String value) {
+    if (value == null || value.length() > MAX_POOLED_PAYLOAD) {
+      return value;
+    }
+    return canonical(value);
+  }
+
+  // the canonical protocol://host:port of an addressable
+  static String urlPrefix(Addressable addressable) {
+    return canonical(addressable.getProtocol().toString() + "://" + addressable.getAddress() + ":"
+        + addressable.getPort());
+  }
+
+  // number of distinct addressables currently shared
+  static synchronized int size() {
+    expunge();
+    return addressables.size();
+  }
+
+  // drop the entries of addressables no longer referenced, caller holds the class monitor
+  private static void expunge() {
+    CanonicalReference reference;
+    while ((reference = (CanonicalReference) released.poll()) != null) {
+      addressables.remove(reference.key, reference);
+    }
+  }
+
+  private static final class CanonicalReference extends WeakReference<Addressable> {
+    private final AddressableKey key;
+
+    private CanonicalReference(Addressable addressable, AddressableKey key) {
+      super(addressable, released);
+      this.key = key;
+    }
+  }
+
+  // the value of an addressable, as encoded by ScheduleCodec
+  private static final class AddressableKey {
+    private final String id;
+    private final String name;
+    private final Protocol protocol;
+    private final HTTPMethod method;
+    private final String address;
+    private final int port;
+    private final String path;
+    private final String publisher;
+    private final String user;
+    private final String password;
+    private final String topic;
+    private final long created;
+    private final long modified;
+    private final long origin;
+    private final int hash;
+
+    private AddressableKey(Addressable addressable) {
+      id = addressable.getId();
+      name = addressable.getName();
+      protocol = addressable.getProtocol();
+      method = addressable.getMethod();
+      address = canonical(addressable.getAddress());
+      port = addressable.getPort();
+      path = canonical(addressable.getPath());
+      publisher = addressable.getPublisher();
+      user = addressable.getUser();
+      password = addressable.getPassword();
+      topic = addressable.getTopic();
+      created = addressable.getCreated();
+      modified = addressable.getModified();
+      origin = addressable.getOrigin();
+      hash = Objects.hash(id, name, protocol, method, address, port, path, publisher, user,
+          password, topic, created, modified, origin);
+    }
+
+    private Addressable toAddressable() {
+      Addressable addressable = new Addressable();
+      addressable.setId(id);
+      addressable.setName(name);
+      addressable.setProtocol(protocol);
+      addressable.setMethod(method);
+      addressable.setAddress(address);
+      addressable.setPort(port);
+      addressable.setPath(path);
+      addressable.setPublisher(publisher);
+      addressable.setUser(user);
+      addressable.setPassword(password);
+      addressable.setTopic(topic);
+      addressable.setCreated(created);
+      addressable.setModified(modified);
+      addressable.setOrigin(origin);
+      return addressable;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof AddressableKey)) {
+        return false;
+      }
+      AddressableKey other = (AddressableKey) obj;
+      return hash == other.hash && Objects.equals(id, other.id)
+          && Objects.equals(name, other.name) && protocol == other.protocol
+          && method == other.method && Objects.equals(address, other.address)
+          && port == other.port && Objects.equals(path, other.path)
+          && Objects.equals(publisher, other.publisher) && Objects.equals(user, other.user)
+          && Objects.equals(password, other.password) && Objects.equals(topic, other.topic)
+          && created == other.created && modified == other.modified && origin == other.origin;
+    }
+  }
+}
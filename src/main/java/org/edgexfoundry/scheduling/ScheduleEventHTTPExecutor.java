@@ -18,14 +18,22 @@
 
 package org.edgexfoundry.scheduling;
 
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
-import org.edgexfoundry.domain.meta.Addressable;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
 import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -35,52 +43,119 @@ public class ScheduleEventHTTPExecutor {
       org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
           .getEdgeXLogger(ScheduleEventHTTPExecutor.class);
 
-  private static final String POST = "POST";
-
   @Value("${server.timeout}")
   private int timeout = 5000;
 
-  @Async
-  public void execute(final ScheduleEvent event) {
+  // keep-alive connections pooled per target host and in total, a connection idle for longer than
+  // the idle timeout (ms) is closed
+  @Value("${schedule.http.maxperhost}")
+  private int maxPerHost = 20;
+  @Value("${schedule.http.maxtotal}")
+  private int maxTotal = 200;
+  @Value("${schedule.http.idletimeout}")
+  private long idleTimeout = 30000;
+
+  // shared by every event, created on first use so the settings above are applied
+  private volatile CloseableHttpClient client;
+
+  // compiled requests by event id, replaced when the event instance changes
+  private final Map<String, ScheduleEventRequest> requests = new ConcurrentHashMap<>();
+
+  // post the event to its addressable, false if the call failed or the target answered with a
+  // server error
+  public boolean execute(final ScheduleEvent event) {
     int returnCode;
+    String url = null;
     String body = event.getParameters();
-    if (body == null)
-      body = "";
-    final String url = getURL(event.getAddressable());
     try {
+      ScheduleEventRequest request = requestFor(event);
+      url = request.getUrl();
+      body = request.getBody();
       if (url == null) {
         logger.info("no address for schedule event " + event.getName());
       } else {
-        URL obj = new URL(url);
-        HttpURLConnection con = (HttpURLConnection) obj.openConnection();
         // per original intent, defaulting to POST.
-        con.setRequestMethod(POST);
-        con.setDoOutput(true);
-        con.setConnectTimeout(timeout);
-        con.setRequestProperty("Content-Type", "application/json");
-        con.setRequestProperty("Content-Length", Integer.toString(body.length()));
-        OutputStream os = con.getOutputStream();
-        os.write(body.getBytes());
-        returnCode = con.getResponseCode();
+        HttpPost post = new HttpPost(request.getUri());
+        post.setEntity(request.getEntity());
+        try (CloseableHttpResponse response = client().execute(post)) {
+          returnCode = response.getStatusLine().getStatusCode();
+          // drain the response so the connection is returned to the pool
+          EntityUtils.consume(response.getEntity());
+        }
         logger.info("executed event " + event.getId() + " '" + event.getName() + "' response code "
             + returnCode + " url '" + url + "' body '" + body + "'");
+        return returnCode < 500;
       }
     } catch (Exception e) {
       logger.error("exception executing event " + event.getId() + " '" + event.getName() + "' url '"
           + url + "' body '" + body + "' exception " + e.getMessage());
     }
+    return false;
   }
 
-  private String getURL(Addressable addressable) {
-    if (addressable != null) {
-      StringBuilder builder = new StringBuilder(addressable.getProtocol().toString());
-      builder.append("://");
-      builder.append(addressable.getAddress());
-      builder.append(":");
-      builder.append(addressable.getPort());
-      builder.append(addressable.getPath());
-      return builder.toString();
+  // drop the compiled request of an event that was updated or removed
+  public void invalidate(String eventId) {
+    if (eventId != null) {
+      requests.remove(eventId);
+    }
+  }
+
+  // compiled requests held
+  int requestCount() {
+    return requests.size();
+  }
+
+  private ScheduleEventRequest requestFor(ScheduleEvent event) {
+    String id = event.getId();
+    if (id == null) {
+      return ScheduleEventRequest.compile(event);
+    }
+    ScheduleEventRequest request = requests.get(id);
+    if (request == null || !request.isFor(event)) {
+      request = ScheduleEventRequest.compile(event);
+      requests.put(id, request);
     }
-    return null;
+    return request;
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    if (client != null) {
+      try {
+        client.close();
+      } catch (IOException e) {
+        logger.error("failed to close the schedule event http client " + e.getMessage());
+      }
+      client = null;
+    }
+  }
+
+  private CloseableHttpClient client() {
+    CloseableHttpClient result = client;
+    if (result == null) {
+      synchronized (this) {
+        if (client == null) {
+          client = createClient();
+        }
+        result = client;
+      }
+    }
+    return result;
+  }
+
+  private CloseableHttpClient createClient() {
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager();
+    connectionManager.setDefaultMaxPerRoute(maxPerHost);
+    connectionManager.setMaxTotal(maxTotal);
+    // waiting for a pooled connection and for the target's response count against the timeout as
+    // connecting does, so a target that never answers fails the call
+    RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(timeout)
+        .setConnectionRequestTimeout(timeout).setSocketTimeout(timeout).build();
+    logger.info("schedule event http client pooling " + maxPerHost + " connections per host, "
+        + maxTotal + " in total");
+    return HttpClients.custom().setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig).evictExpiredConnections()
+        .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS).build();
   }
 }
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+
+// The HTTP request of a schedule event, compiled once and shared by every fire of the event: the
+// resolved URI and the body encoded as UTF-8 with its content type, so the Content-Length is the
+// byte length. Immutable, the event instance it was compiled from tells a stale request apart.
+final class ScheduleEventRequest {
+
+  private final ScheduleEvent event;
+  private final String url;
+  private final URI uri;
+  private final String body;
+  private final ByteArrayEntity entity;
+
+  private ScheduleEventRequest(ScheduleEvent event, String url, String body) {
+    this.event = event;
+    this.url = url;
+    this.uri = url == null ? null : URI.create(url);
+    this.body = body;
+    this.entity =
+        new ByteArrayEntity(body.getBytes(StandardCharsets.UTF_8), ContentType.APPLICATION_JSON);
+  }
+
+  // throws IllegalArgumentException if the addressable does not make a valid URI
+  static ScheduleEventRequest compile(ScheduleEvent event) {
+    String body = event.getParameters();
+    return new ScheduleEventRequest(event, urlOf(event.getAddressable()),
+        body == null ? "" : body);
+  }
+
+  // true if compiled from this event instance
+  boolean isFor(ScheduleEvent scheduleEvent) {
+    return event == scheduleEvent;
+  }
+
+  // null when the event has no addressable
+  URI getUri() {
+    return uri;
+  }
+
+  String getUrl() {
+    return url;
+  }
+
+  String getBody() {
+    return body;
+  }
+
+  // repeatable, written afresh by every request that carries it
+  ByteArrayEntity getEntity() {
+    return entity;
+  }
+
+  private static String urlOf(Addressable addressable) {
+    if (addressable != null) {
+      return ScheduleEventFlyweights.urlPrefix(addressable) + addressable.getPath();
+    }
+    return null;
+  }
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+// Queue of schedule contexts ordered by their next execution time.
+// Implementations are not thread safe, the scheduler serializes access.
+public interface ScheduleQueue {
+
+  static final String HEAP = "heap";
+  static final String WHEEL = "wheel";
+  static final String OFF_HEAP = "offheap";
+
+  // enqueue a context at its current next time
+  void add(ScheduleContext scheduleContext);
+
+  // remove a context, returns false if it was not queued
+  boolean remove(ScheduleContext scheduleContext);
+
+  // reposition a queued context after its next time changed, adds it if not queued
+  default void update(ScheduleContext scheduleContext) {
+    remove(scheduleContext);
+    add(scheduleContext);
+  }
+
+  // remove and return a context due at or before now (epoch millis), null if none are due
+  ScheduleContext pollDue(long now);
+
+  // epoch millis of the earliest due context, Long.MAX_VALUE when empty. May be early, never late.
+  long nextDeadline();
+
+  int size();
+
+  boolean isEmpty();
+
+  void clear();
+
+  // build a queue by name, unknown names fall back to the heap
+  static ScheduleQueue create(String type) {
+    if (WHEEL.equalsIgnoreCase(type)) {
+      return new TimingWheelScheduleQueue();
+    }
+    if (OFF_HEAP.equalsIgnoreCase(type)) {
+      return new OffHeapScheduleQueue();
+    }
+    return new HeapScheduleQueue();
+  }
+}
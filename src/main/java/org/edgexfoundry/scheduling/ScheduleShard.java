@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// One partition of the schedules, contexts are assigned to a shard by schedule id. Each shard has
+// its own queue and timer thread. Due batches are handed to the shard's dispatch thread through a
+// lock-free queue so a slow target does not delay the shard's next tick. The dispatch thread holds
+// batches planned for later (splayed or rate capped) until their release time.
+class ScheduleShard {
+
+  private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
+      org.edgexfoundry.support.logging.client.EdgeXLoggerFactory
+          .getEdgeXLogger(ScheduleShard.class);
+
+  private final Scheduler scheduler;
+  private final int index;
+  private final Clock clock;
+  private final DispatchPlanner planner;
+
+  // prioritized based upon the next execution time of each schedule, its monitor guards the queue
+  // only and is held briefly
+  private final ScheduleQueue queue;
+
+  // batches waiting for the dispatch thread
+  private final ConcurrentLinkedQueue<PlannedDispatch> dispatchQueue =
+      new ConcurrentLinkedQueue<>();
+
+  // completed contexts kept for their retention, oldest first
+  private final ArrayDeque<ScheduleContext> retained = new ArrayDeque<>();
+
+  // contexts changed by callbacks, tiered on the next tick
+  private final ConcurrentLinkedQueue<ScheduleContext> tierQueue = new ConcurrentLinkedQueue<>();
+
+  // dormant contexts by the time (epoch millis) they are to be inflated, earliest first. Filled
+  // and drained by the tick, its monitor is held briefly.
+  private final PriorityQueue<Inflation> inflations = new PriorityQueue<>();
+
+  private Thread timer;
+  private Thread dispatcher;
+  private volatile boolean running;
+
+  ScheduleShard(Scheduler scheduler, int index, ScheduleQueue queue, Clock clock,
+      DispatchPlanner planner) {
+    this.scheduler = scheduler;
+    this.index = index;
+    this.queue = queue;
+    this.clock = clock;
+    this.planner = planner;
+  }
+
+  void start(long maxSleep) {
+    running = true;
+    dispatcher = new Thread(this::runDispatcher, "scheduler-dispatch-" + index);
+    dispatcher.setDaemon(true);
+    dispatcher.start();
+    timer = new Thread(() -> runTimer(maxSleep), "scheduler-timer-" + index);
+    timer.setDaemon(true);
+    timer.start();
+  }
+
+  void stop() {
+    running = false;
+    if (timer != null) {
+      timer.interrupt();
+    }
+    if (dispatcher != null) {
+      LockSupport.unpark(dispatcher);
+    }
+  }
+
+  // enqueue or reposition a context, waking the timer if the head of the queue moved
+  void update(ScheduleContext scheduleContext) {
+    synchronized (queue) {
+      long previousDeadline = queue.nextDeadline();
+      queue.update(scheduleContext);
+      wakeTimerIfHeadChanged(previousDeadline);
+    }
+  }
+
+  void remove(ScheduleContext scheduleContext) {
+    synchronized (queue) {
+      long previousDeadline = queue.nextDeadline();
+      queue.remove(scheduleContext);
+      wakeTimerIfHeadChanged(previousDeadline);
+    }
+  }
+
+  // pop the contexts due at or before now (epoch millis)
+  List<ScheduleContext> pollDue(long now) {
+    List<ScheduleContext> due = new ArrayList<>();
+    synchronized (queue) {
+      ScheduleContext scheduleContext;
+      while ((scheduleContext = queue.pollDue(now)) != null) {
+        due.add(scheduleContext);
+      }
+    }
+    return due;
+  }
+
+  // hand a batch to the dispatch thread, or run it on the caller (ignoring its release time) when
+  // the shard is not started
+  void dispatch(PlannedDispatch planned) {
+    Thread thread = dispatcher;
+    if (running && thread != null) {
+      dispatchQueue.offer(planned);
+      LockSupport.unpark(thread);
+    } else {
+      scheduler.execute(planned.getEvents());
+    }
+  }
+
+  // epoch millis of the earliest due context, see ScheduleQueue.nextDeadline
+  long nextDeadline() {
+    synchronized (queue) {
+      return queue.nextDeadline();
+    }
+  }
+
+  // plans this shard's fires, see DispatchPlanner
+  DispatchPlanner getPlanner() {
+    return planner;
+  }
+
+  void retain(ScheduleContext scheduleContext) {
+    synchronized (retained) {
+      retained.add(scheduleContext);
+    }
+  }
+
+  // remove and return the oldest retained context if it completed at or before expiry (epoch
+  // millis) or more than limit are retained, null otherwise
+  ScheduleContext pollRetained(long expiry, int limit) {
+    synchronized (retained) {
+      ScheduleContext oldest = retained.peek();
+      if (oldest != null && (oldest.getCompletedMillis() <= expiry || retained.size() > limit)) {
+        return retained.poll();
+      }
+      return null;
+    }
+  }
+
+  // epoch millis the oldest retained context completed, Long.MAX_VALUE when none are retained
+  long oldestRetained() {
+    synchronized (retained) {
+      ScheduleContext oldest = retained.peek();
+      return oldest == null ? Long.MAX_VALUE : oldest.getCompletedMillis();
+    }
+  }
+
+  void tierLater(ScheduleContext scheduleContext) {
+    tierQueue.offer(scheduleContext);
+  }
+
+  ScheduleContext pollTierLater() {
+    return tierQueue.poll();
+  }
+
+  void inflateLater(ScheduleContext scheduleContext, long inflateMillis) {
+    synchronized (inflations) {
+      inflations.add(new Inflation(scheduleContext, inflateMillis));
+    }
+  }
+
+  // remove and return an inflation due at or before now (epoch millis), null if none is
+  Inflation pollInflateDue(long now) {
+    synchronized (inflations) {
+      Inflation head = inflations.peek();
+      if (head != null && head.inflateMillis <= now) {
+        return inflations.poll();
+      }
+      return null;
+    }
+  }
+
+  // epoch millis the earliest dormant context is to be inflated, Long.MAX_VALUE when none are
+  long nextInflation() {
+    synchronized (inflations) {
+      Inflation head = inflations.peek();
+      return head == null ? Long.MAX_VALUE : head.inflateMillis;
+    }
+  }
+
+  int retainedSize() {
+    synchronized (retained) {
+      return retained.size();
+    }
+  }
+
+  int size() {
+    synchronized (queue) {
+      return queue.size();
+    }
+  }
+
+  private void runTimer(long maxSleep) {
+    while (running) {
+      synchronized (queue) {
+        long deadline = Math.min(queue.nextDeadline(), nextInflation());
+        long delay =
+            deadline == Long.MAX_VALUE ? maxSleep : Math.min(maxSleep, millisUntil(deadline));
+        if (delay > 0) {
+          try {
+            queue.wait(delay);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            break;
+          }
+          // tick anyway while completed contexts wait to be reclaimed, changed contexts to be
+          // tiered or dormant contexts to be inflated, even if nothing is due
+          if (retainedSize() == 0 && tierQueue.isEmpty() && nextInflation() > clock.millis()) {
+            continue;
+          }
+        }
+      }
+      // outside the lock, the tick only holds it while popping the due contexts
+      for (PlannedDispatch planned : scheduler.tick(this)) {
+        dispatch(planned);
+      }
+    }
+    logger.info("scheduler timer " + index + " stopped");
+  }
+
+  private void runDispatcher() {
+    // batches handed off but not yet released, only touched by this thread
+    PriorityQueue<PlannedDispatch> pending = new PriorityQueue<>();
+    while (running) {
+      PlannedDispatch planned;
+      while ((planned = dispatchQueue.poll()) != null) {
+        pending.add(planned);
+      }
+      PlannedDispatch head = pending.peek();
+      if (head == null) {
+        LockSupport.park(this);
+      } else {
+        long delay = head.getReleaseTime() - clock.millis();
+        if (delay > 0) {
+          LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(delay));
+        } else {
+          scheduler.execute(pending.poll().getEvents());
+        }
+      }
+    }
+    int dropped = pending.size() + dispatchQueue.size();
+    if (dropped > 0) {
+      logger.info("scheduler dispatch " + index + " stopped with " + dropped + " batches pending");
+      dispatchQueue.clear();
+    }
+  }
+
+  // wake the timer if a change moved the head of the queue, caller holds the queue lock
+  private void wakeTimerIfHeadChanged(long previousDeadline) {
+    if (queue.nextDeadline() != previousDeadline) {
+      queue.notifyAll();
+    }
+  }
+
+  private long millisUntil(long epochMilli) {
+    if (epochMilli == Long.MIN_VALUE) {
+      return 0;
+    }
+    return epochMilli - clock.millis();
+  }
+
+  static final class Inflation implements Comparable<Inflation> {
+    private final ScheduleContext scheduleContext;
+    private final long inflateMillis;
+
+    private Inflation(ScheduleContext scheduleContext, long inflateMillis) {
+      this.scheduleContext = scheduleContext;
+      this.inflateMillis = inflateMillis;
+    }
+
+    ScheduleContext getScheduleContext() {
+      return scheduleContext;
+    }
+
+    long getInflateMillis() {
+      return inflateMillis;
+    }
+
+    @Override
+    public int compareTo(Inflation other) {
+      return Long.compare(inflateMillis, other.inflateMillis);
+    }
+  }
+}
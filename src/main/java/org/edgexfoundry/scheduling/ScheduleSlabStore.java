@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Off heap store for the compact form of dormant schedule contexts. Records are appended to a few
+// large direct buffers (slabs) rather than each getting its own, so the collector tracks one
+// buffer per slab instead of one per schedule. A record is named by an int handle indexing an on
+// heap table of slab, offset and length, so records can be moved without telling their owners.
+// When more than half of the slab space is held by removed records the live ones are copied into
+// fresh slabs and the old slabs dropped.
+final class ScheduleSlabStore {
+
+  static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+  private final int slabSize;
+
+  private final List<ByteBuffer> slabs = new ArrayList<>();
+  // live bytes per slab
+  private int[] slabLive = new int[4];
+  // slab records are appended to, and the offset of its free space
+  private int current = -1;
+  private int top;
+
+  // handle -> slab, offset and length, a free handle has slab -1 and is chained through its offset
+  private int[] recordSlab = new int[64];
+  private int[] recordOffset = new int[64];
+  private int[] recordLength = new int[64];
+  private int records;
+  private int freeHandle = -1;
+
+  private int size;
+  private long liveBytes;
+  private long slabBytes;
+
+  ScheduleSlabStore() {
+    this(DEFAULT_SLAB_SIZE);
+  }
+
+  ScheduleSlabStore(int slabSize) {
+    this.slabSize = slabSize;
+  }
+
+  // store a record, returns its handle
+  synchronized int put(byte[] bytes) {
+    int slab = slabFor(bytes.length);
+    int offset = top;
+    ByteBuffer buffer = slabs.get(slab).duplicate();
+    buffer.position(offset);
+    buffer.put(bytes);
+    top += bytes.length;
+    slabLive[slab] += bytes.length;
+    int handle = newHandle();
+    recordSlab[handle] = slab;
+    recordOffset[handle] = offset;
+    recordLength[handle] = bytes.length;
+    size++;
+    liveBytes += bytes.length;
+    return handle;
+  }
+
+  // copy a record out of the store
+  synchronized byte[] get(int handle) {
+    checkHandle(handle);
+    byte[] bytes = new byte[recordLength[handle]];
+    ByteBuffer buffer = slabs.get(recordSlab[handle]).duplicate();
+    buffer.position(recordOffset[handle]);
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  // copy a record out of the store and free it
+  synchronized byte[] remove(int handle) {
+    byte[] bytes = get(handle);
+    free(handle);
+    return bytes;
+  }
+
+  synchronized void free(int handle) {
+    checkHandle(handle);
+    int slab = recordSlab[handle];
+    int length = recordLength[handle];
+    slabLive[slab] -= length;
+    recordSlab[handle] = -1;
+    recordOffset[handle] = freeHandle;
+    freeHandle = handle;
+    size--;
+    liveBytes -= length;
+    if (slabLive[slab] == 0 && slab == current) {
+      // nothing left in the slab records are appended to, start it over
+      top = 0;
+    }
+    if (slabBytes - liveBytes > Math.max(2L * slabSize, liveBytes)) {
+      compact();
+    }
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  synchronized long getLiveBytes() {
+    return liveBytes;
+  }
+
+  // direct memory held by the slabs
+  synchronized long getSlabBytes() {
+    return slabBytes;
+  }
+
+  synchronized int getSlabCount() {
+    return slabs.size();
+  }
+
+  // slab with room for a record of length bytes at top, a record larger than a slab gets a slab
+  // of its own
+  private int slabFor(int length) {
+    if (current >= 0 && top + length <= slabs.get(current).capacity()) {
+      return current;
+    }
+    current = addSlab(Math.max(slabSize, length));
+    top = 0;
+    return current;
+  }
+
+  private int addSlab(int capacity) {
+    slabs.add(ByteBuffer.allocateDirect(capacity));
+    slabBytes += capacity;
+    if (slabs.size() > slabLive.length) {
+      int[] grown = new int[slabLive.length * 2];
+      System.arraycopy(slabLive, 0, grown, 0, slabLive.length);
+      slabLive = grown;
+    }
+    slabLive[slabs.size() - 1] = 0;
+    return slabs.size() - 1;
+  }
+
+  private int newHandle() {
+    if (freeHandle >= 0) {
+      int handle = freeHandle;
+      freeHandle = recordOffset[handle];
+      return handle;
+    }
+    if (records == recordSlab.length) {
+      int capacity = records * 2;
+      recordSlab = grow(recordSlab, capacity);
+      recordOffset = grow(recordOffset, capacity);
+      recordLength = grow(recordLength, capacity);
+    }
+    return records++;
+  }
+
+  // copy the live records into fresh slabs, keeping their handles
+  private void compact() {
+    List<ByteBuffer> old = new ArrayList<>(slabs);
+    slabs.clear();
+    slabLive = new int[4];
+    slabBytes = 0;
+    current = -1;
+    top = 0;
+    for (int handle = 0; handle < records; handle++) {
+      if (recordSlab[handle] >= 0) {
+        ByteBuffer source = old.get(recordSlab[handle]).duplicate();
+        source.position(recordOffset[handle]);
+        source.limit(recordOffset[handle] + recordLength[handle]);
+        int slab = slabFor(recordLength[handle]);
+        ByteBuffer target = slabs.get(slab).duplicate();
+        target.position(top);
+        target.put(source);
+        recordSlab[handle] = slab;
+        recordOffset[handle] = top;
+        top += recordLength[handle];
+        slabLive[slab] += recordLength[handle];
+      }
+    }
+  }
+
+  private void checkHandle(int handle) {
+    if (handle < 0 || handle >= records || recordSlab[handle] < 0) {
+      throw new IllegalArgumentException("no schedule record " + handle);
+    }
+  }
+
+  private static int[] grow(int[] array, int capacity) {
+    int[] grown = new int[capacity];
+    System.arraycopy(array, 0, grown, 0, array.length);
+    return grown;
+  }
+}
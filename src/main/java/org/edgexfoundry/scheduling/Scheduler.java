@@ -18,13 +18,18 @@
 
 package org.edgexfoundry.scheduling;
 
-import java.time.Instant;
-import java.util.Comparator;
+import java.time.Clock;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.ws.rs.NotFoundException;
 
 import org.edgexfoundry.BaseService;
@@ -35,8 +40,7 @@ import org.edgexfoundry.controller.impl.ScheduleEventClientImpl;
 import org.edgexfoundry.domain.meta.Schedule;
 import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 // TODO: Consider use of Quartz or other scheduler. Must support polyglot env, i.e can be
@@ -44,7 +48,6 @@ import org.springframework.stereotype.Component;
 // TODO: handle system clock update
 
 @Component
-@EnableScheduling
 public class Scheduler extends BaseService {
 
   private static final org.edgexfoundry.support.logging.client.EdgeXLogger logger =
@@ -53,6 +56,7 @@ public class Scheduler extends BaseService {
   private static final String ERR_SCH = "schedule ";
   private static final String ERR_FAIL_UPD = "failed to update schedule event ";
   private static final String ERR_NOT_FOUND = " not found";
+  private static final int SCHEDULE_LOCK_STRIPES = 64;
 
   // Client to fetch schedule events
   @Autowired
@@ -67,74 +71,658 @@ public class Scheduler extends BaseService {
 
   // Schedule id -> Schedule Context Mapping
   // used to find the schedule context given a schedule, e.g. update/delete this schedule
-  private HashMap<String, ScheduleContext> scheduleIdToScheduleContextMap;
+  private Map<String, ScheduleContext> scheduleIdToScheduleContextMap;
 
   // Schedule Event id -> Schedule Id
   // used to find the schedule context (via schedule id) given a schedule event, e.g. update/delete
   // this schedule event
-  private HashMap<String, String> scheduleEventIdToScheduleIdMap;
-
-  // the scheduleContextQueue is prioritized based upon the next execution time of each schedule
-  private PriorityQueue<ScheduleContext> scheduleContextQueue =
-      new PriorityQueue<>(new Comparator<ScheduleContext>() {
-        @Override
-        public int compare(ScheduleContext unit1, ScheduleContext unit2) {
-          int result = Long.compare(unit1.getNextTime().toEpochSecond(),
-              unit2.getNextTime().toEpochSecond());
-          // if the ticks are equivalent just dequeue the lhs
-          result = result != 0 ? result : -1;
-          return result;
-        }
-      });
+  private Map<String, String> scheduleEventIdToScheduleIdMap;
+
+  // Striped locks keyed by schedule id, guard a schedule's context and its registry entries so
+  // callbacks for different schedules run in parallel. Lock order is stripe, then queue, and the
+  // lower stripe first when two are held.
+  private final Object[] scheduleLocks = new Object[SCHEDULE_LOCK_STRIPES];
+
+  // schedules are partitioned by id across shards, each with its own queue and timer thread. Built
+  // on first use, once the settings below are applied, see shards().
+  private volatile ScheduleShard[] shards;
+  private String scheduleQueueType = ScheduleQueue.HEAP;
+  private int shardCount = Runtime.getRuntime().availableProcessors();
+
+  // source of the current time, read once per tick. A VirtualClock runs the schedules in virtual
+  // time, see simulate
+  private Clock clock = Clock.systemDefaultZone();
+
+  // longest the timer sleeps without being woken, bounds drift after a system clock change
+  @Value("${schedule.maxsleep}")
+  private long maxSleep = 60000;
+
+  // a schedule more than this many ms late has misfired and is handled by its misfire policy
+  @Value("${schedule.misfire.tolerance}")
+  private long misfireTolerance = 1000;
+
+  // misfire policy for schedules without an override, and overrides by schedule name
+  private MisfirePolicy misfirePolicy = MisfirePolicy.FIRE_ONCE;
+  private Map<String, MisfirePolicy> misfirePolicies = new HashMap<>();
+
+  // events of a fire are spread over the schedule's splay window (ms), 0 fires them together
+  @Value("${schedule.splay.window}")
+  private long splayWindow = 0;
+  private Map<String, Long> splayWindows = new HashMap<>();
+
+  // caps the events released per second across all schedules, shared out between the shards
+  private int maxDispatchPerSecond = 0;
+
+  // missed occurrences skipped or coalesced into a single fire, across all schedules
+  private final LongAdder skippedFires = new LongAdder();
+  private final LongAdder coalescedFires = new LongAdder();
+
+  // a completed schedule is kept this many ms, so a late update can still extend it, then its
+  // context and event mappings are reclaimed. 0 reclaims it as soon as it completes.
+  @Value("${schedule.retention}")
+  private long retention = 3600000;
+
+  // most completed schedules kept for the retention, split evenly across the shards, the oldest
+  // are reclaimed first
+  @Value("${schedule.retention.max}")
+  private int maxRetained = 10000;
+
+  private final LongAdder reclaimedSchedules = new LongAdder();
+
+  // per target (host:port) limits on events in flight, adapting between min and max: halved when
+  // a call fails or takes longer than latency ms, raised by about one per round of calls otherwise.
+  // Events past a target's limit are queued (at most queue per target) or shed. 0 turns the limits
+  // off.
+  @Value("${schedule.bulkhead.limit}")
+  private int bulkheadLimit = 0;
+  @Value("${schedule.bulkhead.limit.min}")
+  private int bulkheadMinLimit = 1;
+  @Value("${schedule.bulkhead.limit.max}")
+  private int bulkheadMaxLimit = 64;
+  @Value("${schedule.bulkhead.latency}")
+  private long bulkheadLatency = 1000;
+  @Value("${schedule.bulkhead.policy}")
+  private String bulkheadPolicy = "queue";
+  @Value("${schedule.bulkhead.queue}")
+  private int bulkheadQueue = 100;
+
+  // a schedule whose next time is further off than this many ms is held in compact (serialized)
+  // form until its next time comes within the horizon or a callback changes it, 0 keeps every
+  // schedule live. Off heap holds the compact forms in a store of large direct buffers shared by
+  // every schedule.
+  @Value("${schedule.tiering.horizon}")
+  private long tieringHorizon = 0;
+  @Value("${schedule.tiering.offheap}")
+  private boolean tieringOffHeap = false;
+  private volatile ScheduleSlabStore slabStore;
 
   public Scheduler() {
     scheduleEventExecutor = new ScheduleEventExecutor();
     scheduleEventClient = new ScheduleEventClientImpl();
     scheduleClient = new ScheduleClientImpl();
-    scheduleIdToScheduleContextMap = new HashMap<>();
-    scheduleEventIdToScheduleIdMap = new HashMap<>();
+    scheduleIdToScheduleContextMap = new ConcurrentHashMap<>();
+    scheduleEventIdToScheduleIdMap = new ConcurrentHashMap<>();
+    for (int i = 0; i < scheduleLocks.length; i++) {
+      scheduleLocks[i] = new Object();
+    }
+  }
+
+  // dispatch through the HTTP executor bean, so its connection pool settings apply
+  @Autowired(required = false)
+  public void setScheduleEventHTTPExecutor(ScheduleEventHTTPExecutor httpExecutor) {
+    scheduleEventExecutor.httpExecutor = httpExecutor;
+  }
+
+  // select the schedule queue implementation (heap, wheel or offheap), applied before schedules are
+  // loaded
+  @Value("${schedule.queue}")
+  public void setScheduleQueueType(String scheduleQueueType) {
+    checkShardsNotBuilt("schedule.queue");
+    this.scheduleQueueType = scheduleQueueType;
+  }
+
+  // number of shards, 0 or less uses the available processors, applied before schedules are loaded
+  @Value("${schedule.shards}")
+  public void setScheduleShards(int scheduleShards) {
+    checkShardsNotBuilt("schedule.shards");
+    this.shardCount =
+        scheduleShards > 0 ? scheduleShards : Runtime.getRuntime().availableProcessors();
+  }
+
+  @Value("${schedule.misfire.policy}")
+  public void setMisfirePolicy(String policy) {
+    MisfirePolicy parsed = MisfirePolicy.parse(policy);
+    if (parsed == null) {
+      logger.error("unknown misfire policy '" + policy + "', using " + misfirePolicy);
+    } else {
+      misfirePolicy = parsed;
+    }
+  }
+
+  // comma separated schedule name:policy pairs, e.g. midnight:fire_all,hourly:skip
+  @Value("${schedule.misfire.overrides}")
+  public void setMisfireOverrides(String overrides) {
+    Map<String, MisfirePolicy> policies = new HashMap<>();
+    if (overrides != null && !overrides.trim().isEmpty()) {
+      for (String override : overrides.split(",")) {
+        int separator = override.lastIndexOf(':');
+        MisfirePolicy parsed =
+            separator == -1 ? null : MisfirePolicy.parse(override.substring(separator + 1));
+        if (parsed == null) {
+          logger.error("ignoring misfire override '" + override + "'");
+        } else {
+          policies.put(override.substring(0, separator).trim(), parsed);
+        }
+      }
+    }
+    misfirePolicies = policies;
+  }
+
+  // comma separated schedule name:window pairs, window in ms, e.g. midnight:60000
+  @Value("${schedule.splay.overrides}")
+  public void setSplayOverrides(String overrides) {
+    Map<String, Long> windows = new HashMap<>();
+    if (overrides != null && !overrides.trim().isEmpty()) {
+      for (String override : overrides.split(",")) {
+        int separator = override.lastIndexOf(':');
+        try {
+          windows.put(override.substring(0, separator).trim(),
+              Long.parseLong(override.substring(separator + 1).trim()));
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+          logger.error("ignoring splay override '" + override + "'");
+        }
+      }
+    }
+    splayWindows = windows;
+  }
+
+  // clock for the shards and schedule contexts, applied before schedules are loaded
+  public void setClock(Clock clock) {
+    checkShardsNotBuilt("clock");
+    this.clock = clock;
+  }
+
+  public Clock getClock() {
+    return clock;
+  }
+
+  // most events dispatched in any one second, 0 or less is unlimited
+  @Value("${schedule.dispatch.maxpersecond}")
+  public void setMaxDispatchPerSecond(int maxPerSecond) {
+    checkShardsNotBuilt("schedule.dispatch.maxpersecond");
+    this.maxDispatchPerSecond = maxPerSecond;
+  }
+
+  // worker threads dispatching events, 0 dispatches on the shard dispatch threads
+  @Value("${schedule.dispatch.workers}")
+  public void setDispatchWorkers(int workers) {
+    scheduleEventExecutor.setWorkers(workers);
+  }
+
+  // events queued for a dispatch worker before the rejection policy applies
+  @Value("${schedule.dispatch.queue}")
+  public void setDispatchQueue(int capacity) {
+    scheduleEventExecutor.setQueueCapacity(capacity);
+  }
+
+  // caller_runs or discard, see ScheduleEventExecutor.setRejectionPolicy
+  @Value("${schedule.dispatch.rejection}")
+  public void setDispatchRejection(String policy) {
+    scheduleEventExecutor.setRejectionPolicy(policy);
+  }
+
+  // pool or virtual, virtual runs each event on its own virtual thread (JDK 21 or later)
+  @Value("${schedule.dispatch.mode}")
+  public void setDispatchMode(String mode) {
+    scheduleEventExecutor.setDispatchMode(mode);
+  }
+
+  // events running on virtual threads at once before the rejection policy applies
+  @Value("${schedule.dispatch.virtual.maxinflight}")
+  public void setDispatchMaxInFlight(int maxInFlight) {
+    scheduleEventExecutor.setMaxInFlight(maxInFlight);
+  }
+
+  // events waiting for a dispatch worker
+  public int getDispatchQueueDepth() {
+    return scheduleEventExecutor.getQueueDepth();
+  }
+
+  // events that found the dispatch queue full, and those of them dropped
+  public long getRejectedDispatches() {
+    return scheduleEventExecutor.getRejected();
+  }
+
+  public long getDiscardedDispatches() {
+    return scheduleEventExecutor.getDiscarded();
+  }
+
+  // events dropped by their target's limit
+  public long getShedDispatches() {
+    return scheduleEventExecutor.getShed();
+  }
+
+  // current limit of each target (host:port) events were dispatched to
+  public Map<String, Integer> getTargetLimits() {
+    return scheduleEventExecutor.getTargetLimits();
+  }
+
+  // events held past their target's limit
+  public int getTargetQueued() {
+    return scheduleEventExecutor.getTargetQueued();
+  }
+
+  // events moved to a later second by the dispatch rate cap
+  public long getDeferredDispatches() {
+    long deferred = 0;
+    for (ScheduleShard shard : shards()) {
+      deferred += shard.getPlanner().getDeferred();
+    }
+    return deferred;
+  }
+
+  public long getSkippedFires() {
+    return skippedFires.sum();
+  }
+
+  public long getCoalescedFires() {
+    return coalescedFires.sum();
+  }
+
+  // completed schedules reclaimed
+  public long getReclaimedSchedules() {
+    return reclaimedSchedules.sum();
+  }
+
+  // completed schedules waiting out their retention
+  public int getRetainedSchedules() {
+    int retained = 0;
+    for (ScheduleShard shard : shards()) {
+      retained += shard.retainedSize();
+    }
+    return retained;
+  }
+
+  // direct memory held for dormant schedules, 0 unless tiering off heap
+  public long getOffHeapBytes() {
+    ScheduleSlabStore store = slabStore;
+    return store == null ? 0 : store.getSlabBytes();
+  }
+
+  // the shards, built with the queue type, count, clock and dispatch cap set by then. Those settings are refused
+  // once the shards are built, as rebuilding them would drop the schedules they hold.
+  private ScheduleShard[] shards() {
+    ScheduleShard[] result = shards;
+    if (result == null) {
+      synchronized (this) {
+        if (shards == null) {
+          ScheduleShard[] built = new ScheduleShard[shardCount];
+          for (int i = 0; i < shardCount; i++) {
+            built[i] = new ScheduleShard(this, i, ScheduleQueue.create(scheduleQueueType), clock,
+                new DispatchPlanner(dispatchShare(i)));
+          }
+          logger.info("using " + shardCount + " shards of " + scheduleQueueType
+              + " schedule queues");
+          shards = built;
+        }
+        result = shards;
+      }
+    }
+    return result;
+  }
+
+  // shard's share of the dispatch cap, the remainder goes to the first shards and every shard may
+  // release at least one event a second
+  private int dispatchShare(int shard) {
+    if (maxDispatchPerSecond <= 0) {
+      return 0;
+    }
+    int share = maxDispatchPerSecond / shardCount;
+    if (shard < maxDispatchPerSecond % shardCount) {
+      share++;
+    }
+    return Math.max(1, share);
+  }
+
+  private void checkShardsNotBuilt(String setting) {
+    if (shards != null) {
+      throw new IllegalStateException(setting + " must be set before schedules are loaded");
+    }
+  }
+
+  @PostConstruct
+  public void startTimer() {
+    scheduleEventExecutor.setBulkheads(bulkheadLimit, bulkheadMinLimit, bulkheadMaxLimit,
+        bulkheadLatency, "shed".equalsIgnoreCase(bulkheadPolicy) ? 0 : bulkheadQueue);
+    for (ScheduleShard shard : shards()) {
+      shard.start(maxSleep);
+    }
+  }
+
+  @PreDestroy
+  public void stopTimer() {
+    for (ScheduleShard shard : shards()) {
+      shard.stop();
+    }
+    scheduleEventExecutor.shutdown();
+  }
+
+  private ScheduleShard shardFor(String scheduleId) {
+    int hash = Objects.hashCode(scheduleId);
+    hash ^= hash >>> 16;
+    ScheduleShard[] current = shards();
+    return current[Math.floorMod(hash, current.length)];
+  }
+
+  private Object lockFor(String scheduleId) {
+    return scheduleLocks[stripeOf(scheduleId)];
+  }
+
+  // the locks of two schedules, lower stripe first, taken together to move an event
+  private Object firstLockFor(String scheduleId, String otherScheduleId) {
+    return scheduleLocks[Math.min(stripeOf(scheduleId), stripeOf(otherScheduleId))];
+  }
+
+  private Object secondLockFor(String scheduleId, String otherScheduleId) {
+    return scheduleLocks[Math.max(stripeOf(scheduleId), stripeOf(otherScheduleId))];
+  }
+
+  private static int stripeOf(String scheduleId) {
+    int hash = Objects.hashCode(scheduleId);
+    hash ^= hash >>> 16;
+    return hash & (SCHEDULE_LOCK_STRIPES - 1);
+  }
+
+  // compact a context whose next time is beyond the tiering horizon and have it inflated again
+  // once its next time is within the horizon, caller holds its lock
+  private void tier(ScheduleContext scheduleContext, long nowEpoch) {
+    if (tieringHorizon > 0 && scheduleContext.getNextTimeMillis() - nowEpoch > tieringHorizon) {
+      scheduleContext.compact(tieringOffHeap ? slabStore() : null);
+      inflateLater(scheduleContext);
+    }
+  }
+
+  // queue a dormant context to be inflated once its next time is within the horizon, unless it is
+  // queued for then or earlier, caller holds its lock
+  private void inflateLater(ScheduleContext scheduleContext) {
+    long inflateMillis = scheduleContext.getNextTimeMillis() - tieringHorizon;
+    long queued = scheduleContext.getInflateMillis();
+    if (queued == 0 || inflateMillis < queued) {
+      scheduleContext.setInflateMillis(inflateMillis);
+      shardFor(scheduleContext.getId()).inflateLater(scheduleContext, inflateMillis);
+    }
+  }
+
+  // inflate the shard's dormant contexts whose next time came within the horizon, so a fire does
+  // not decode its context, taking each one's lock in turn
+  private void inflateDue(ScheduleShard shard, long nowEpoch) {
+    ScheduleShard.Inflation inflation;
+    while ((inflation = shard.pollInflateDue(nowEpoch)) != null) {
+      ScheduleContext scheduleContext = inflation.getScheduleContext();
+      synchronized (lockFor(scheduleContext.getId())) {
+        // skip entries superseded by an earlier one
+        if (scheduleContext.getInflateMillis() != inflation.getInflateMillis()) {
+          continue;
+        }
+        scheduleContext.setInflateMillis(0);
+        // skip contexts removed, replaced or already inflated by a callback since
+        if (scheduleIdToScheduleContextMap.get(scheduleContext.getId()) != scheduleContext
+            || !scheduleContext.isDormant()) {
+          continue;
+        }
+        if (scheduleContext.getNextTimeMillis() - nowEpoch <= tieringHorizon) {
+          scheduleContext.inflate();
+        } else {
+          inflateLater(scheduleContext);
+        }
+      }
+    }
   }
 
-  @Scheduled(fixedRateString = "${schedule.interval}")
+  // compact a context changed by a callback on its shard's next tick rather than at once, so a
+  // burst of callbacks on one schedule encodes it once, caller holds its lock
+  private void tierLater(ScheduleContext scheduleContext) {
+    if (tieringHorizon > 0 && !scheduleContext.isTierPending()) {
+      scheduleContext.setTierPending(true);
+      shardFor(scheduleContext.getId()).tierLater(scheduleContext);
+    }
+  }
+
+  // tier the shard's contexts changed since its last tick, taking each one's lock in turn
+  private void tierChanged(ScheduleShard shard, long nowEpoch) {
+    ScheduleContext scheduleContext;
+    while ((scheduleContext = shard.pollTierLater()) != null) {
+      synchronized (lockFor(scheduleContext.getId())) {
+        scheduleContext.setTierPending(false);
+        // skip contexts removed, or replaced, by a callback since
+        if (scheduleIdToScheduleContextMap.get(scheduleContext.getId()) == scheduleContext) {
+          tier(scheduleContext, nowEpoch);
+        }
+      }
+    }
+  }
+
+  private ScheduleSlabStore slabStore() {
+    ScheduleSlabStore result = slabStore;
+    if (result == null) {
+      synchronized (this) {
+        if (slabStore == null) {
+          slabStore = new ScheduleSlabStore();
+        }
+        result = slabStore;
+      }
+    }
+    return result;
+  }
+
+  private void enqueue(ScheduleContext scheduleContext) {
+    shardFor(scheduleContext.getId()).update(scheduleContext);
+  }
+
+  private void dequeue(ScheduleContext scheduleContext) {
+    shardFor(scheduleContext.getId()).remove(scheduleContext);
+  }
+
+  // tick every shard on the caller's thread
   public void schedule() {
-    synchronized (scheduleContextQueue) {
-      // Instant is in epoch time
-      Instant nowInstant = Instant.now();
-      long nowEpoch = nowInstant.getEpochSecond();
+    for (ScheduleShard shard : shards()) {
+      for (PlannedDispatch planned : tick(shard)) {
+        shard.dispatch(planned);
+      }
+    }
+  }
+
+  // Run the schedules on the virtual clock with the timer stopped, moving the clock from one due
+  // time to the next as fast as the ticks run until it reaches until (epoch millis). Dispatches run
+  // on the caller at their release time. Returns the number of batches dispatched.
+  public long simulate(long until) {
+    if (!(clock instanceof VirtualClock)) {
+      throw new IllegalStateException("simulation needs a virtual clock");
+    }
+    VirtualClock virtualClock = (VirtualClock) clock;
+    PriorityQueue<PlannedDispatch> pending = new PriorityQueue<>();
+    long dispatched = 0;
+    while (true) {
+      long next = Long.MAX_VALUE;
+      for (ScheduleShard shard : shards()) {
+        next = Math.min(next, shard.nextDeadline());
+        next = Math.min(next, shard.nextInflation());
+        long oldestRetained = shard.oldestRetained();
+        if (oldestRetained != Long.MAX_VALUE) {
+          next = Math.min(next, oldestRetained + retention);
+        }
+      }
+      if (!pending.isEmpty()) {
+        next = Math.min(next, pending.peek().getReleaseTime());
+      }
+      if (next > until) {
+        break;
+      }
+      virtualClock.setMillis(Math.max(next, virtualClock.millis()));
+      while (!pending.isEmpty() && pending.peek().getReleaseTime() <= virtualClock.millis()) {
+        execute(pending.poll().getEvents());
+        dispatched++;
+      }
+      for (ScheduleShard shard : shards()) {
+        pending.addAll(tick(shard));
+      }
+    }
+    virtualClock.setMillis(Math.max(until, virtualClock.millis()));
+    return dispatched;
+  }
+
+  // reschedule the shard's due contexts and return their events planned for dispatch
+  List<PlannedDispatch> tick(ScheduleShard shard) {
+    // epoch time, read once for the tick, schedules are ordered and due to the millisecond
+    long nowEpoch = clock.millis();
 
-      while (scheduleContextQueue.peek() != null
-          && scheduleContextQueue.peek().getNextTime().toEpochSecond() <= nowEpoch) {
+    // pop the due contexts, the queue lock is not held while they are processed
+    List<ScheduleContext> due = shard.pollDue(nowEpoch);
+
+    // collect the batch and reschedule under each schedule's lock, dispatch once it is released
+    // so a slow target cannot hold up callbacks or the next tick
+    List<PlannedDispatch> batch = new ArrayList<>(due.size());
+    for (ScheduleContext scheduleContext : due) {
+      synchronized (lockFor(scheduleContext.getId())) {
         try {
-          // pop the schedule context off the queue
-          ScheduleContext scheduleContext = scheduleContextQueue.remove();
+          // skip contexts removed, or reset and requeued, by a callback since they were popped
+          if (scheduleIdToScheduleContextMap.get(scheduleContext.getId()) != scheduleContext) {
+            continue;
+          }
+          // popped before it is due, e.g. after the clock stepped back, queue it again
+          if (scheduleContext.getNextTimeMillis() > nowEpoch) {
+            shard.update(scheduleContext);
+            continue;
+          }
 
-          logger.info("executing schedule " + scheduleContext.getInfo() + " at "
-              + scheduleContext.getNextTime());
+          if (misfire(scheduleContext, nowEpoch)) {
+            logger.info("executing schedule " + scheduleContext.getInfo() + " at "
+                + scheduleContext.getNextTime());
 
-          // run the events for the schedule
-          scheduleEventExecutor.execute(scheduleContext.getScheduleEvents());
+            // the events snapshot is immutable, callbacks publish a new one rather than change it
+            ScheduleEvent[] events = scheduleContext.getScheduleEventArray();
+            batch.addAll(shard.getPlanner().plan(events, scheduleContext.getNextTimeMillis(),
+                splayWindows.getOrDefault(scheduleContext.getName(), splayWindow)));
 
-          // update the context
-          scheduleContext.updateNextTime();
-          scheduleContext.updateIterations();
+            // update the context
+            scheduleContext.updateNextTime(nowEpoch);
+            scheduleContext.updateIterations(nowEpoch);
+          }
 
           // if the schedule is not complete, enqueue it.
-          if (scheduleContext.isComplete()) {
+          if (scheduleContext.isComplete(nowEpoch)) {
             logger.info(
                 ERR_SCH + scheduleContext.getInfo() + " is complete." + scheduleContext.toString());
+            if (retention <= 0) {
+              reclaim(scheduleContext);
+            } else {
+              scheduleContext.setCompletedMillis(nowEpoch);
+              shard.retain(scheduleContext);
+            }
           } else {
             logger.debug("queueing schedule " + scheduleContext.getInfo());
-            scheduleContextQueue.add(scheduleContext);
+            shard.update(scheduleContext);
+            tier(scheduleContext, nowEpoch);
           }
         } catch (Exception e) {
           logger.error("exception while scheduling schedule contects" + e);
         }
       }
     }
+    tierChanged(shard, nowEpoch);
+    inflateDue(shard, nowEpoch);
+    reclaimRetained(shard, nowEpoch);
+    return batch;
+  }
+
+  // reclaim the shard's completed contexts past their retention or over the shard's share of the
+  // budget, taking each one's lock in turn
+  private void reclaimRetained(ScheduleShard shard, long nowEpoch) {
+    int limit = Math.max(0, maxRetained) / shards().length;
+    ScheduleContext scheduleContext;
+    while ((scheduleContext = shard.pollRetained(nowEpoch - retention, limit)) != null) {
+      synchronized (lockFor(scheduleContext.getId())) {
+        // an update may have extended the schedule since it completed
+        if (scheduleContext.isComplete(nowEpoch)) {
+          reclaim(scheduleContext);
+        }
+      }
+    }
+  }
+
+  // drop a completed context and its event mappings unless a callback already replaced or removed
+  // it, caller holds its lock
+  private void reclaim(ScheduleContext scheduleContext) {
+    String id = scheduleContext.getId();
+    if (scheduleIdToScheduleContextMap.remove(id, scheduleContext)) {
+      for (String eventId : scheduleContext.getScheduleEventIds()) {
+        scheduleEventIdToScheduleIdMap.remove(eventId, id);
+        scheduleEventExecutor.invalidate(eventId);
+      }
+      scheduleContext.discard();
+      reclaimedSchedules.increment();
+      logger.debug("reclaimed completed schedule " + scheduleContext.getInfo());
+    }
+  }
+
+  // apply the misfire policy to a due context, returns true if it should fire now. A context
+  // within the tolerance always fires, otherwise the policy may move its next time.
+  private boolean misfire(ScheduleContext scheduleContext, long nowEpoch) {
+    long lateness = nowEpoch - scheduleContext.getNextTimeMillis();
+    if (lateness <= misfireTolerance) {
+      return true;
+    }
+    MisfirePolicy policy = misfirePolicies.getOrDefault(scheduleContext.getName(), misfirePolicy);
+    long skipped;
+    switch (policy) {
+      case FIRE_ALL:
+        return true;
+      case SKIP:
+        skipped = scheduleContext.skipDue(nowEpoch);
+        scheduleContext.addSkippedFires(skipped);
+        skippedFires.add(skipped);
+        logger.info(ERR_SCH + scheduleContext.getInfo() + " misfired by " + lateness
+            + "ms, skipped " + skipped + " fires");
+        return false;
+      case FIRE_WITHIN_TOLERANCE:
+        skipped = scheduleContext.skipToLatestDue(nowEpoch);
+        boolean fire = nowEpoch - scheduleContext.getNextTimeMillis() <= misfireTolerance;
+        if (!fire) {
+          skipped += scheduleContext.skipDue(nowEpoch);
+        }
+        scheduleContext.addSkippedFires(skipped);
+        skippedFires.add(skipped);
+        logger.info(ERR_SCH + scheduleContext.getInfo() + " misfired by " + lateness
+            + "ms, skipped " + skipped + " fires");
+        return fire;
+      case FIRE_ONCE:
+      default:
+        // fire for the latest missed occurrence, the earlier ones are coalesced into it
+        long coalesced = scheduleContext.skipToLatestDue(nowEpoch);
+        scheduleContext.addCoalescedFires(coalesced);
+        coalescedFires.add(coalesced);
+        logger.info(ERR_SCH + scheduleContext.getInfo() + " misfired by " + lateness
+            + "ms, coalesced " + coalesced + " fires");
+        return true;
+    }
   }
 
+  // run the events for a due schedule
+  void execute(ScheduleEvent[] events) {
+    try {
+      scheduleEventExecutor.execute(events);
+    } catch (Exception e) {
+      logger.error("exception while executing schedule events " + e);
+    }
+  }
+
+  public ScheduleContext getScheduleContext(String id) {
+    return scheduleIdToScheduleContextMap.get(id);
+  }
+
+  // throws InvalidFrequencyException if the schedule's frequency is rejected
   public boolean createScheduleContext(Schedule schedule) {
-    synchronized (scheduleContextQueue) {
+    synchronized (lockFor(schedule.getId())) {
       if (scheduleIdToScheduleContextMap.containsKey(schedule.getId())) {
         // not intended to be an error
         logger.info("schedule context " + schedule.getId() + " '" + schedule.getName()
@@ -142,62 +730,71 @@ public class Scheduler extends BaseService {
         return false;
       } else {
         // build a new schedule context
-        ScheduleContext scheduleContext = new ScheduleContext(schedule);
+        ScheduleContext scheduleContext = new ScheduleContext(schedule, clock);
 
         // store a mapping of schedule id to schedule context
         scheduleIdToScheduleContextMap.put(schedule.getId(), scheduleContext);
 
         // enqueue the context
-        scheduleContextQueue.add(scheduleContext);
+        enqueue(scheduleContext);
         logger.info("created schedule context " + scheduleContext.getInfo() + " initial start time "
             + scheduleContext.getNextTime().toString());
+        tierLater(scheduleContext);
         return true;
       }
     }
   }
 
+  // throws InvalidFrequencyException, leaving the current schedule in place, if the schedule's
+  // frequency is rejected
   public boolean updateScheduleContext(Schedule schedule) {
-    synchronized (scheduleContextQueue) {
-      if (!scheduleIdToScheduleContextMap.containsKey(schedule.getId())) {
+    synchronized (lockFor(schedule.getId())) {
+      ScheduleContext scheduleContext = scheduleIdToScheduleContextMap.get(schedule.getId());
+      if (scheduleContext == null) {
         // not intended to be an error
         logger.error("failed to find schedule for " + schedule.getId() + " " + schedule.getName());
         return false;
       } else {
-        // remove the schedule context from the queue
-        scheduleContextQueue.remove(scheduleIdToScheduleContextMap.get(schedule.getId()));
-
-        // update the schedule
-        scheduleIdToScheduleContextMap.get(schedule.getId()).reset(schedule);
+        // update the schedule, a rename drops the schedule's events so drop their mappings too
+        List<String> eventIds = new ArrayList<>(scheduleContext.getScheduleEvents().keySet());
+        scheduleContext.reset(schedule);
+        for (String eventId : eventIds) {
+          if (!scheduleContext.getScheduleEvents().containsKey(eventId)) {
+            scheduleEventIdToScheduleIdMap.remove(eventId, schedule.getId());
+            scheduleEventExecutor.invalidate(eventId);
+          }
+        }
 
-        // enqueue the context
-        ScheduleContext scheduleContext = scheduleIdToScheduleContextMap.get(schedule.getId());
-        scheduleContextQueue.add(scheduleContext);
+        // reposition the context in the queue for its new next time
+        enqueue(scheduleContext);
         logger.info("updated schedule " + scheduleContext.getInfo() + " initial start time "
             + scheduleContext.getNextTime().toString());
+        tierLater(scheduleContext);
         return true;
       }
     }
   }
 
   public boolean removeScheduleById(String id) {
-    synchronized (scheduleContextQueue) {
-      if (!scheduleIdToScheduleContextMap.containsKey(id)) {
+    synchronized (lockFor(id)) {
+      // look up the schedule context
+      ScheduleContext sc = scheduleIdToScheduleContextMap.get(id);
+      if (sc == null) {
         logger.error(ERR_SCH + id + " not found.");
         return false;
       } else {
-        // look up the schedule context
-        ScheduleContext sc = scheduleIdToScheduleContextMap.get(id);
-
-        // remove all event id to schedule id mappings
-        for (Map.Entry<String, ScheduleEvent> entry : sc.getScheduleEvents().entrySet()) {
-          scheduleEventIdToScheduleIdMap.remove(entry.getValue().getId());
+        // remove all event id to schedule id mappings still pointing at this schedule
+        for (String eventId : sc.getScheduleEventIds()) {
+          scheduleEventIdToScheduleIdMap.remove(eventId, id);
+          scheduleEventExecutor.invalidate(eventId);
         }
 
         // remove the schedule context from the queue
-        scheduleContextQueue.remove(sc);
+        dequeue(sc);
 
         // remove the schedule context from the map (which contains schedule events)
         scheduleIdToScheduleContextMap.remove(id);
+        sc.discard();
 
         logger.info("removed schedule " + id);
         return true;
@@ -206,102 +803,129 @@ public class Scheduler extends BaseService {
   }
 
   public boolean addScheduleEventToScheduleContext(ScheduleEvent scheduleEvent) {
-    synchronized (scheduleContextQueue) {
-      // get the schedule for the event
-      Schedule schedule = null;
-      try {
-        schedule = scheduleClient.scheduleForName(scheduleEvent.getSchedule());
-      } catch (NotFoundException nfE) {
-        logger.info("Schedule event not found with");
-      }
+    // get the schedule for the event, before taking a lock as it is a remote call
+    Schedule schedule = null;
+    try {
+      schedule = scheduleClient.scheduleForName(scheduleEvent.getSchedule());
+    } catch (NotFoundException nfE) {
+      logger.info("Schedule event not found with");
+    }
 
-      if (schedule == null) {
-        logger.error(
-            "failed to add schedule event " + scheduleEvent.getId() + " '" + scheduleEvent.getName()
-                + "' " + "schedule '" + scheduleEvent.getSchedule() + "' not found");
-      } else {
-        // ensure a schedule context exists
-        createScheduleContext(schedule);
+    if (schedule == null) {
+      logger.error(
+          "failed to add schedule event " + scheduleEvent.getId() + " '" + scheduleEvent.getName()
+              + "' " + "schedule '" + scheduleEvent.getSchedule() + "' not found");
+      return false;
+    }
+    String eventId = scheduleEvent.getId();
+    while (true) {
+      // an event is held by one schedule, move it if it is already held by another. Both
+      // schedules are locked so a concurrent add cannot leave the event in each of them.
+      String currentScheduleId = scheduleEventIdToScheduleIdMap.get(eventId);
+      String otherScheduleId = currentScheduleId == null ? schedule.getId() : currentScheduleId;
+      synchronized (firstLockFor(schedule.getId(), otherScheduleId)) {
+        synchronized (secondLockFor(schedule.getId(), otherScheduleId)) {
+          if (!Objects.equals(currentScheduleId, scheduleEventIdToScheduleIdMap.get(eventId))) {
+            // moved before the locks were taken
+            continue;
+          }
+          // ensure a schedule context exists, before the event leaves its current schedule so a
+          // rejected frequency leaves the event where it is
+          createScheduleContext(schedule);
+          if (currentScheduleId != null && !currentScheduleId.equals(schedule.getId())) {
+            removeScheduleEvent(eventId, currentScheduleId);
+          }
 
-        // add the schedule event to the context
-        scheduleIdToScheduleContextMap.get(schedule.getId()).addScheduleEvent(scheduleEvent);
+          // add the schedule event to the context
+          ScheduleContext scheduleContext = scheduleIdToScheduleContextMap.get(schedule.getId());
+          scheduleContext.addScheduleEvent(scheduleEvent);
+          tierLater(scheduleContext);
 
-        // add to the schedule event id to schedule id map
-        scheduleEventIdToScheduleIdMap.put(scheduleEvent.getId(), schedule.getId());
-        return true;
+          // add to the schedule event id to schedule id map
+          scheduleEventIdToScheduleIdMap.put(eventId, schedule.getId());
+          return true;
+        }
       }
-      return false;
     }
   }
 
   public boolean updateScheduleEventInScheduleContext(ScheduleEvent scheduleEvent) {
-    synchronized (scheduleContextQueue) {
-      // get the schedule for the event
-      String scheduleId = scheduleEventIdToScheduleIdMap.get(scheduleEvent.getId());
-      if (scheduleId == null) {
-        logger.error(ERR_FAIL_UPD + scheduleEvent.getName() + " current schedule "
-            + scheduleEvent.getId() + ERR_NOT_FOUND);
-      } else {
-        Schedule schedule = scheduleClient.scheduleForName(scheduleEvent.getSchedule());
-        if (schedule == null) {
-          logger.error(ERR_FAIL_UPD + scheduleEvent.getName() + " schedule "
-              + scheduleEvent.getSchedule() + ERR_NOT_FOUND);
-        } else {
-          // see if the event switched schedules
-          if (scheduleId != schedule.getId()) {
-            if (!scheduleIdToScheduleContextMap.containsKey(scheduleId)) {
-              logger.error("failed to switch schedule event " + scheduleEvent.getId()
-                  + ", schedule " + scheduleId + ERR_NOT_FOUND);
-            } else {
-              // remove the schedule event from the old schedule
-              removeScheduleEventById(scheduleEvent.getId());
-              // add the schedule event to the new schedule
-              addScheduleEventToScheduleContext(scheduleEvent);
-              return true;
-            }
-          } else {
-            // update the schedule event in place
-            if (!scheduleIdToScheduleContextMap.containsKey(schedule.getId())) {
-              logger.error(ERR_FAIL_UPD + scheduleEvent.getId() + ", schedule " + schedule.getId()
-                  + ERR_NOT_FOUND);
-            } else {
-              // update the schedule event in the context
-              scheduleIdToScheduleContextMap.get(schedule.getId())
-                  .updateScheduleEvent(scheduleEvent);
-              return true;
-            }
-          }
-        }
-      }
+    // get the schedule for the event
+    String scheduleId = scheduleEventIdToScheduleIdMap.get(scheduleEvent.getId());
+    if (scheduleId == null) {
+      logger.error(ERR_FAIL_UPD + scheduleEvent.getName() + " current schedule "
+          + scheduleEvent.getId() + ERR_NOT_FOUND);
+      return false;
+    }
+    Schedule schedule = scheduleClient.scheduleForName(scheduleEvent.getSchedule());
+    if (schedule == null) {
+      logger.error(ERR_FAIL_UPD + scheduleEvent.getName() + " schedule "
+          + scheduleEvent.getSchedule() + ERR_NOT_FOUND);
       return false;
     }
+    // update the schedule event in place
+    synchronized (lockFor(scheduleId)) {
+      ScheduleContext scheduleContext = scheduleIdToScheduleContextMap.get(scheduleId);
+      if (scheduleContext == null) {
+        logger.error(ERR_FAIL_UPD + scheduleEvent.getId() + ", schedule " + scheduleId
+            + ERR_NOT_FOUND);
+        return false;
+      }
+      if (scheduleId.equals(schedule.getId())
+          && scheduleId.equals(scheduleEventIdToScheduleIdMap.get(scheduleEvent.getId()))) {
+        // update the schedule event in the context
+        scheduleContext.updateScheduleEvent(scheduleEvent);
+        scheduleEventExecutor.invalidate(scheduleEvent.getId());
+        tierLater(scheduleContext);
+        return true;
+      }
+    }
+    // the event switched schedules, or moved since it was looked up, add moves it
+    return addScheduleEventToScheduleContext(scheduleEvent);
   }
 
   public boolean removeScheduleEventById(String id) {
-    synchronized (scheduleContextQueue) {
-      String scheduleId;
-      scheduleId = scheduleEventIdToScheduleIdMap.get(id);
+    while (true) {
+      String scheduleId = scheduleEventIdToScheduleIdMap.get(id);
       if (scheduleId == null) {
         // check for schedule event id to schedule id mapping
         logger.error("failed to remove schedule event, schedule event " + id + ERR_NOT_FOUND);
-      } else {
-        // check for schedule event id to schedule context mapping
-        if (!scheduleIdToScheduleContextMap.containsKey(scheduleId)) {
-          logger.error("failed to remove schedule event, schedule " + scheduleId + ERR_NOT_FOUND);
-        } else {
-          // remove the schedule event from the schedule context
-          scheduleIdToScheduleContextMap.get(scheduleId).removeScheduleEventById(id);
-
-          // if there are no more events for the schedule remove the schedule context
-          if (scheduleIdToScheduleContextMap.get(scheduleId).getScheduleEvents().isEmpty()) {
-            logger.info(ERR_SCH + scheduleId + " event list is empty, removing.");
-            removeScheduleById(scheduleId);
-            return true;
-          }
+        return false;
+      }
+      synchronized (lockFor(scheduleId)) {
+        if (!scheduleId.equals(scheduleEventIdToScheduleIdMap.get(id))) {
+          // moved before the lock was taken
+          continue;
         }
+        return removeScheduleEvent(id, scheduleId);
       }
+    }
+  }
+
+  // remove an event from the schedule it maps to, and the schedule if it has no events left.
+  // Returns true if the schedule was removed, caller holds the schedule's lock.
+  private boolean removeScheduleEvent(String id, String scheduleId) {
+    // check for schedule event id to schedule context mapping
+    ScheduleContext scheduleContext = scheduleIdToScheduleContextMap.get(scheduleId);
+    if (scheduleContext == null) {
+      logger.error("failed to remove schedule event, schedule " + scheduleId + ERR_NOT_FOUND);
+      scheduleEventIdToScheduleIdMap.remove(id, scheduleId);
       return false;
     }
+    // remove the schedule event from the schedule context
+    if (scheduleContext.removeScheduleEventById(id)) {
+      scheduleEventIdToScheduleIdMap.remove(id, scheduleId);
+      scheduleEventExecutor.invalidate(id);
+    }
+
+    // if there are no more events for the schedule remove the schedule context
+    if (scheduleContext.getScheduleEvents().isEmpty()) {
+      logger.info(ERR_SCH + scheduleId + " event list is empty, removing.");
+      removeScheduleById(scheduleId);
+      return true;
+    }
+    tierLater(scheduleContext);
+    return false;
   }
 
   // Scheduler implementation of initialize
@@ -310,18 +934,22 @@ public class Scheduler extends BaseService {
     boolean loaded = true;
 
     logger.info("loading schedules");
-    synchronized (scheduleContextQueue) {
-      // get all the schedule events for this service
-      List<ScheduleEvent> scheduleEventList = null;
-      try {
-        scheduleEventList = scheduleEventClient.scheduleEventsForServiceByName(getServiceName());
-        for (ScheduleEvent se : scheduleEventList)
+    // get all the schedule events for this service
+    List<ScheduleEvent> scheduleEventList = null;
+    try {
+      scheduleEventList = scheduleEventClient.scheduleEventsForServiceByName(getServiceName());
+      for (ScheduleEvent se : scheduleEventList) {
+        try {
           addScheduleEventToScheduleContext(se);
-      } catch (Exception e) {
-        logger.error("failed to load schedule events for service " + getServiceName() + " " + e);
-        loaded = false;
+        } catch (InvalidFrequencyException e) {
+          // a rejected schedule does not stop the others from loading
+          logger.error("failed to load schedule event " + se.getName() + " " + e.getMessage());
+          loaded = false;
+        }
       }
-
+    } catch (Exception e) {
+      logger.error("failed to load schedule events for service " + getServiceName() + " " + e);
+      loaded = false;
     }
     logger.info("loaded schedules");
     return loaded;
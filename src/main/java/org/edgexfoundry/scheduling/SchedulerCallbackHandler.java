@@ -49,6 +49,9 @@ public class SchedulerCallbackHandler {
           Schedule schedule = scheduleClient.schedule(alert.getId());
           if (schedule != null)
             scheduler.updateScheduleContext(schedule);
+        } catch (InvalidFrequencyException e) {
+          // rejected schedules are reported back to the caller
+          throw e;
         } catch (Exception e) {
           logger.error("failed to put schedule " + alert.getId() + " " + e);
           return false;
@@ -59,6 +62,9 @@ public class SchedulerCallbackHandler {
           ScheduleEvent scheduleEvent = scheduleEventClient.scheduleEvent(alert.getId());
           if (scheduleEvent != null)
             scheduler.updateScheduleEventInScheduleContext(scheduleEvent);
+        } catch (InvalidFrequencyException e) {
+          // rejected schedules are reported back to the caller
+          throw e;
         } catch (Exception e) {
           logger.error("failed to put schedule event " + alert.getId() + " " + e);
           return false;
@@ -77,6 +83,9 @@ public class SchedulerCallbackHandler {
           Schedule schedule = scheduleClient.schedule(alert.getId());
           if (schedule != null)
             scheduler.createScheduleContext(schedule);
+        } catch (InvalidFrequencyException e) {
+          // rejected schedules are reported back to the caller
+          throw e;
         } catch (Exception e) {
           logger.error("failed to post schedule " + alert.getId() + " " + e);
           return false;
@@ -87,6 +96,9 @@ public class SchedulerCallbackHandler {
           ScheduleEvent scheduleEvent = scheduleEventClient.scheduleEvent(alert.getId());
           if (scheduleEvent != null)
             scheduler.addScheduleEventToScheduleContext(scheduleEvent);
+        } catch (InvalidFrequencyException e) {
+          // rejected schedules are reported back to the caller
+          throw e;
         } catch (Exception e) {
           logger.error("failed to post schedule event " + alert.getId() + " " + e);
           return false;
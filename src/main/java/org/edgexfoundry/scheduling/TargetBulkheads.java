@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.edgexfoundry.domain.meta.Addressable;
+
+// Per target (host:port) concurrency limits for dispatched events, so a slow target can hold at
+// most its limit of dispatch workers. Each limit adapts additive-increase/multiplicative-decrease:
+// a call that fails or takes longer than the latency threshold halves the limit, at most once per
+// round of calls, and every other call raises it by 1/limit, about one per round. Events past the
+// limit are held per target, in order, until a call completes, or shed. Targets idle for a while
+// are forgotten.
+class TargetBulkheads<T> {
+
+  // outcome of submitting a task
+  enum Admission {
+    // the task holds a slot and can be dispatched now
+    ADMITTED,
+    // the task is held until a slot frees, see release
+    QUEUED,
+    // the task is dropped
+    SHED
+  }
+
+  // a target with nothing in flight or held for this long is forgotten, with its limit
+  static final long IDLE_MILLIS = 600000;
+
+  private final int initialLimit;
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyNanos;
+  // most tasks held per target, 0 sheds every task past the limit
+  private final int maxQueued;
+  private final long idleNanos;
+
+  private final Map<String, Target<T>> targets = new ConcurrentHashMap<>();
+  // System.nanoTime of the last sweep for idle targets
+  private final AtomicLong swept = new AtomicLong(System.nanoTime());
+
+  TargetBulkheads(int initialLimit, int minLimit, int maxLimit, long latencyMillis,
+      int maxQueued) {
+    this(initialLimit, minLimit, maxLimit, latencyMillis, maxQueued, IDLE_MILLIS);
+  }
+
+  TargetBulkheads(int initialLimit, int minLimit, int maxLimit, long latencyMillis, int maxQueued,
+      long idleMillis) {
+    this.minLimit = Math.max(1, minLimit);
+    this.maxLimit = Math.max(this.minLimit, maxLimit);
+    this.initialLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+    this.maxQueued = Math.max(0, maxQueued);
+    this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+  }
+
+  // host:port of an addressable, null when it has no address
+  static String targetOf(Addressable addressable) {
+    if (addressable == null || addressable.getAddress() == null) {
+      return null;
+    }
+    return addressable.getAddress() + ":" + addressable.getPort();
+  }
+
+  Admission submit(String target, T task) {
+    long now = System.nanoTime();
+    sweep(now);
+    while (true) {
+      Admission admission = targets.computeIfAbsent(target, key -> new Target<>(initialLimit))
+          .submit(task, maxQueued, now);
+      // null if the target was swept after it was looked up
+      if (admission != null) {
+        return admission;
+      }
+    }
+  }
+
+  // a slot's call completed after nanos, successfully or not. Adapts the target's limit and
+  // returns the held tasks that now hold slots, in the order they were held
+  List<T> release(String target, boolean succeeded, long nanos) {
+    return targets.get(target).release(succeeded, nanos, latencyNanos, minLimit, maxLimit);
+  }
+
+  // a slot was given up without a call, e.g. the dispatch was rejected. Returns the held tasks
+  // that now hold slots
+  List<T> cancel(String target) {
+    return targets.get(target).handOver();
+  }
+
+  // current limit of each target
+  Map<String, Integer> getLimits() {
+    Map<String, Integer> limits = new TreeMap<>();
+    for (Map.Entry<String, Target<T>> entry : targets.entrySet()) {
+      limits.put(entry.getKey(), entry.getValue().getLimit());
+    }
+    return limits;
+  }
+
+  // tasks held across all targets
+  int getQueued() {
+    int queued = 0;
+    for (Target<T> target : targets.values()) {
+      queued += target.getQueued();
+    }
+    return queued;
+  }
+
+  // forget the targets idle for longer than the idle time, at most once per idle time. A target
+  // with a call in flight or a task held is never idle, so release and cancel always find theirs.
+  private void sweep(long now) {
+    long last = swept.get();
+    if (now - last < idleNanos || !swept.compareAndSet(last, now)) {
+      return;
+    }
+    for (Map.Entry<String, Target<T>> entry : targets.entrySet()) {
+      if (entry.getValue().evictIfIdle(now, idleNanos)) {
+        targets.remove(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  private static final class Target<T> {
+    private double limit;
+    private int inFlight;
+    private final ArrayDeque<T> queued = new ArrayDeque<>();
+    // System.nanoTime of the last decrease, calls started before it do not decrease again
+    private boolean hasDecreased;
+    private long decreased;
+    // System.nanoTime of the last submit, and set once the target is swept
+    private long used;
+    private boolean evicted;
+
+    private Target(int limit) {
+      this.limit = limit;
+      this.used = System.nanoTime();
+    }
+
+    // null if the target was swept, tasks are held behind those already waiting
+    private synchronized Admission submit(T task, int maxQueued, long now) {
+      if (evicted) {
+        return null;
+      }
+      used = now;
+      if (queued.isEmpty() && inFlight < (int) limit) {
+        inFlight++;
+        return Admission.ADMITTED;
+      }
+      if (queued.size() < maxQueued) {
+        queued.add(task);
+        return Admission.QUEUED;
+      }
+      return Admission.SHED;
+    }
+
+    private synchronized List<T> release(boolean succeeded, long nanos, long latencyNanos,
+        int minLimit, int maxLimit) {
+      long now = System.nanoTime();
+      if (!succeeded || nanos > latencyNanos) {
+        if (!hasDecreased || now - nanos - decreased >= 0) {
+          limit = Math.max(minLimit, limit / 2);
+          hasDecreased = true;
+          decreased = now;
+        }
+      } else {
+        limit = Math.min(maxLimit, limit + 1 / limit);
+      }
+      return handOver();
+    }
+
+    // free a slot and hand the free slots to held tasks, several if the limit has grown
+    private synchronized List<T> handOver() {
+      inFlight--;
+      if (queued.isEmpty() || inFlight >= (int) limit) {
+        return Collections.emptyList();
+      }
+      List<T> admitted = new ArrayList<>(1);
+      while (inFlight < (int) limit && !queued.isEmpty()) {
+        inFlight++;
+        admitted.add(queued.poll());
+      }
+      return admitted;
+    }
+
+    private synchronized boolean evictIfIdle(long now, long idleNanos) {
+      if (inFlight == 0 && queued.isEmpty() && now - used >= idleNanos) {
+        evicted = true;
+      }
+      return evicted;
+    }
+
+    private synchronized int getLimit() {
+      return (int) limit;
+    }
+
+    private synchronized int getQueued() {
+      return queued.size();
+    }
+  }
+}
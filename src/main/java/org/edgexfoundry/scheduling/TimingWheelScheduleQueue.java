@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Hierarchical timing wheel, O(1) insert and remove, advance cost proportional to the number of
+// occupied slots passed. A tick is one millisecond, seven levels cover about 139 years.
+// Each level has 64 slots, a slot on level n spans 64^n ticks. Contexts
+// are cascaded down a level when the wheel below wraps, and expire from level 0 into a ready list.
+public class TimingWheelScheduleQueue implements ScheduleQueue {
+
+  private static final int WHEEL_BITS = 6;
+  private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+  private static final int LEVELS = 7;
+  // anything further out is parked on the top level and re-cascaded until in range
+  private static final long MAX_SPAN = 1L << (WHEEL_BITS * LEVELS);
+  private static final int READY = -1;
+
+  private static final class Node {
+    private final ScheduleContext context;
+    private long deadline;
+    private int level;
+    private int slot;
+    private Node prev;
+    private Node next;
+
+    private Node(ScheduleContext context) {
+      this.context = context;
+    }
+  }
+
+  // slot list heads per level
+  private final Node[][] wheels = new Node[LEVELS][WHEEL_SIZE];
+
+  // bitmap of non-empty slots per level, used to skip idle stretches of the wheel
+  private final long[] occupied = new long[LEVELS];
+
+  // expired contexts waiting to be polled, in expiry order
+  private Node readyHead;
+  private Node readyTail;
+
+  // context -> wheel node, identity based as contexts are mutable
+  private final Map<ScheduleContext, Node> nodes = new IdentityHashMap<>();
+
+  // the wheel is positioned on the first poll, contexts added before that wait in the ready list
+  private boolean started;
+  private long currentTick;
+
+  @Override
+  public void add(ScheduleContext scheduleContext) {
+    remove(scheduleContext);
+    Node node = new Node(scheduleContext);
+    node.deadline = deadlineOf(scheduleContext);
+    nodes.put(scheduleContext, node);
+    if (started) {
+      insert(node);
+    } else {
+      appendReady(node);
+    }
+  }
+
+  @Override
+  public boolean remove(ScheduleContext scheduleContext) {
+    Node node = nodes.remove(scheduleContext);
+    if (node == null) {
+      return false;
+    }
+    unlink(node);
+    return true;
+  }
+
+  @Override
+  public ScheduleContext pollDue(long now) {
+    if (!started) {
+      start(now);
+    } else if (now < currentTick) {
+      rewind(now);
+    }
+    if (readyHead == null) {
+      advance(now);
+    }
+    Node node = readyHead;
+    if (node == null) {
+      return null;
+    }
+    unlink(node);
+    nodes.remove(node.context);
+    return node.context;
+  }
+
+  @Override
+  public long nextDeadline() {
+    if (readyHead != null) {
+      // anything ready (or added before the first poll) is due now
+      return started ? currentTick : Long.MIN_VALUE;
+    }
+    // a cascade tick rather than an expiry, waking for it is early but harmless
+    return nextEventTick();
+  }
+
+  @Override
+  public int size() {
+    return nodes.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return nodes.isEmpty();
+  }
+
+  @Override
+  public void clear() {
+    for (int level = 0; level < LEVELS; level++) {
+      Arrays.fill(wheels[level], null);
+      occupied[level] = 0;
+    }
+    readyHead = null;
+    readyTail = null;
+    nodes.clear();
+  }
+
+  private long deadlineOf(ScheduleContext scheduleContext) {
+    return scheduleContext.getNextTimeMillis();
+  }
+
+  private void start(long now) {
+    started = true;
+    currentTick = now;
+    Node node = readyHead;
+    readyHead = null;
+    readyTail = null;
+    while (node != null) {
+      Node next = node.next;
+      node.prev = null;
+      node.next = null;
+      insert(node);
+      node = next;
+    }
+  }
+
+  // the clock stepped back, position the wheel at now and place every context again so none is
+  // polled before its deadline. Rare, so the cost of re-inserting them all is accepted.
+  private void rewind(long now) {
+    List<Node> all = new ArrayList<>(nodes.values());
+    all.sort(Comparator.comparingLong(node -> node.deadline));
+    for (int level = 0; level < LEVELS; level++) {
+      Arrays.fill(wheels[level], null);
+      occupied[level] = 0;
+    }
+    readyHead = null;
+    readyTail = null;
+    currentTick = now;
+    for (Node node : all) {
+      node.prev = null;
+      node.next = null;
+      insert(node);
+    }
+  }
+
+  private void insert(Node node) {
+    long delta = node.deadline - currentTick;
+    if (delta <= 0) {
+      appendReady(node);
+      return;
+    }
+    long target = node.deadline;
+    if (delta >= MAX_SPAN) {
+      delta = MAX_SPAN - 1;
+      target = currentTick + delta;
+    }
+    int level = (63 - Long.numberOfLeadingZeros(delta)) / WHEEL_BITS;
+    int slot = (int) ((target >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+    node.level = level;
+    node.slot = slot;
+    node.prev = null;
+    node.next = wheels[level][slot];
+    if (node.next != null) {
+      node.next.prev = node;
+    }
+    wheels[level][slot] = node;
+    occupied[level] |= 1L << slot;
+  }
+
+  private void appendReady(Node node) {
+    node.level = READY;
+    node.next = null;
+    node.prev = readyTail;
+    if (readyTail == null) {
+      readyHead = node;
+    } else {
+      readyTail.next = node;
+    }
+    readyTail = node;
+  }
+
+  private void unlink(Node node) {
+    if (node.level == READY) {
+      if (node.prev == null) {
+        readyHead = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        readyTail = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+    } else {
+      if (node.prev == null) {
+        wheels[node.level][node.slot] = node.next;
+        if (node.next == null) {
+          occupied[node.level] &= ~(1L << node.slot);
+        }
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next != null) {
+        node.next.prev = node.prev;
+      }
+    }
+    node.prev = null;
+    node.next = null;
+  }
+
+  // move the wheel forward to the target tick, stopping early once something has expired
+  private void advance(long target) {
+    while (readyHead == null && currentTick < target) {
+      long next = nextEventTick();
+      if (next > target) {
+        currentTick = target;
+        return;
+      }
+      currentTick = next;
+      for (int level = LEVELS - 1; level > 0; level--) {
+        int shift = WHEEL_BITS * level;
+        if ((currentTick & ((1L << shift) - 1)) == 0) {
+          cascade(level, (int) ((currentTick >>> shift) & WHEEL_MASK));
+        }
+      }
+      expire((int) (currentTick & WHEEL_MASK));
+    }
+  }
+
+  // the earliest tick after the current one at which an occupied slot cascades or expires
+  private long nextEventTick() {
+    long best = Long.MAX_VALUE;
+    for (int level = 0; level < LEVELS; level++) {
+      long bits = occupied[level];
+      if (bits == 0) {
+        continue;
+      }
+      int shift = WHEEL_BITS * level;
+      int index = (int) ((currentTick >>> shift) & WHEEL_MASK);
+      long base = (currentTick >>> (shift + WHEEL_BITS)) << (shift + WHEEL_BITS);
+      long after = bits & (-2L << index);
+      long tick;
+      if (after != 0) {
+        tick = base + ((long) Long.numberOfTrailingZeros(after) << shift);
+      } else {
+        // wrap around to the next rotation of this level
+        tick = base + (1L << (shift + WHEEL_BITS))
+            + ((long) Long.numberOfTrailingZeros(bits) << shift);
+      }
+      if (tick < best) {
+        best = tick;
+      }
+    }
+    return best;
+  }
+
+  private void cascade(int level, int slot) {
+    Node node = detachSlot(level, slot);
+    while (node != null) {
+      Node next = node.next;
+      node.prev = null;
+      node.next = null;
+      insert(node);
+      node = next;
+    }
+  }
+
+  private void expire(int slot) {
+    Node node = detachSlot(0, slot);
+    while (node != null) {
+      Node next = node.next;
+      appendReady(node);
+      node = next;
+    }
+  }
+
+  private Node detachSlot(int level, int slot) {
+    Node head = wheels[level][slot];
+    wheels[level][slot] = null;
+    occupied[level] &= ~(1L << slot);
+    return head;
+  }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A clock that only moves when it is set or advanced, used to run the scheduler in virtual time.
+// Clocks derived with withZone share the same time.
+public class VirtualClock extends Clock {
+
+  private final AtomicLong millis;
+  private final ZoneId zone;
+
+  public VirtualClock(long epochMilli) {
+    this(new AtomicLong(epochMilli), ZoneId.systemDefault());
+  }
+
+  private VirtualClock(AtomicLong millis, ZoneId zone) {
+    this.millis = millis;
+    this.zone = zone;
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return new VirtualClock(millis, zone);
+  }
+
+  @Override
+  public long millis() {
+    return millis.get();
+  }
+
+  @Override
+  public Instant instant() {
+    return Instant.ofEpochMilli(millis.get());
+  }
+
+  public void setMillis(long epochMilli) {
+    millis.set(epochMilli);
+  }
+
+  public void advance(long deltaMillis) {
+    millis.addAndGet(deltaMillis);
+  }
+}
@@ -22,7 +22,9 @@ import static org.junit.Assert.assertEquals;
 
 import org.edgexfoundry.controller.impl.CallbackControllerImpl;
 import org.edgexfoundry.domain.meta.CallbackAlert;
+import org.edgexfoundry.exception.controller.DataValidationException;
 import org.edgexfoundry.exception.controller.ServiceException;
+import org.edgexfoundry.scheduling.InvalidFrequencyException;
 import org.edgexfoundry.scheduling.SchedulerCallbackHandler;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.junit.Before;
@@ -62,6 +64,13 @@ public class CallbackControllerTest {
     controller.handlePut(alert);
   }
 
+  @Test(expected = DataValidationException.class)
+  public void testHandlePutInvalidFrequency() {
+    Mockito.when(callbackHandler.handlePut(alert))
+        .thenThrow(new InvalidFrequencyException("frequency 'P0D' is zero"));
+    controller.handlePut(alert);
+  }
+
   @Test
   public void testHandlePost() {
     Mockito.when(callbackHandler.handlePost(alert)).thenReturn(true);
@@ -74,6 +83,13 @@ public class CallbackControllerTest {
     controller.handlePost(alert);
   }
 
+  @Test(expected = DataValidationException.class)
+  public void testHandlePostInvalidFrequency() {
+    Mockito.when(callbackHandler.handlePost(alert))
+        .thenThrow(new InvalidFrequencyException("frequency 'P0D' is zero"));
+    controller.handlePost(alert);
+  }
+
   @Test
   public void testHandleDelete() {
     Mockito.when(callbackHandler.handleDelete(alert)).thenReturn(true);
@@ -23,11 +23,21 @@ import org.edgexfoundry.controller.CallbackControllerTest;
 import org.edgexfoundry.controller.PingControllerTest;
 import org.edgexfoundry.schedule.domain.SimpleScheduleEventTest;
 import org.edgexfoundry.schedule.domain.SimpleScheduleTest;
+import org.edgexfoundry.scheduling.CronExpressionTest;
+import org.edgexfoundry.scheduling.DispatchPlannerTest;
+import org.edgexfoundry.scheduling.FrequencyTest;
+import org.edgexfoundry.scheduling.HeapScheduleQueueTest;
+import org.edgexfoundry.scheduling.OffHeapScheduleQueueTest;
+import org.edgexfoundry.scheduling.ScheduleCodecTest;
 import org.edgexfoundry.scheduling.ScheduleContextTest;
 import org.edgexfoundry.scheduling.ScheduleEventExecutorTest;
+import org.edgexfoundry.scheduling.ScheduleEventFlyweightsTest;
 import org.edgexfoundry.scheduling.ScheduleEventHTTPExecutorTest;
+import org.edgexfoundry.scheduling.ScheduleSlabStoreTest;
 import org.edgexfoundry.scheduling.SchedulerCallbackHandlerTest;
 import org.edgexfoundry.scheduling.SchedulerTest;
+import org.edgexfoundry.scheduling.TargetBulkheadsTest;
+import org.edgexfoundry.scheduling.TimingWheelScheduleQueueTest;
 import org.junit.Ignore;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -44,7 +54,10 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({BaseServiceTest.class, CallbackControllerTest.class, PingControllerTest.class,
     SimpleScheduleEventTest.class, SimpleScheduleTest.class, ScheduleContextTest.class,
     ScheduleEventExecutorTest.class, ScheduleEventHTTPExecutorTest.class, SchedulerTest.class,
-    SchedulerCallbackHandlerTest.class})
+    SchedulerCallbackHandlerTest.class, HeapScheduleQueueTest.class,
+    TimingWheelScheduleQueueTest.class, DispatchPlannerTest.class, CronExpressionTest.class,
+    FrequencyTest.class, ScheduleCodecTest.class, OffHeapScheduleQueueTest.class,
+    ScheduleEventFlyweightsTest.class, TargetBulkheadsTest.class, ScheduleSlabStoreTest.class})
 public class UnitTestSuite {
 
 }
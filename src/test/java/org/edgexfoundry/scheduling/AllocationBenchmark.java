@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Profiles the bytes allocated by a schedule context as a tick advances it (next time, iterations,
+ * completion), against stepping a zoned date time as the context did before its state was held in
+ * epoch millis. Needs a JVM with thread allocation accounting (HotSpot).
+ */
+@Ignore(Benchmarks.IGNORED)
+public class AllocationBenchmark {
+
+  private static final String[] FREQUENCIES = {"PT1S", "PT1M", "PT1H", "P1D", "P1M"};
+  private static final String CRON = "0 */5 * * * ?";
+  private static final int ITERATIONS = 100000;
+  private static final int ROUNDS = 3;
+
+  private final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  @Test
+  public void profileAdvance() {
+    for (int round = 0; round < ROUNDS; round++) {
+      for (String frequency : FREQUENCIES) {
+        Schedule schedule = newSchedule();
+        schedule.setFrequency(frequency);
+        report(frequency, schedule);
+      }
+      Schedule schedule = newSchedule();
+      schedule.setCron(CRON);
+      report("cron '" + CRON + "'", schedule);
+
+      long before = allocated();
+      ZonedDateTime next = ZonedDateTime.now();
+      Duration minute = Duration.ofMinutes(1);
+      for (int i = 0; i < ITERATIONS; i++) {
+        next = next.plus(minute);
+      }
+      System.out.println("zoned date time PT1M step: " + (allocated() - before) / ITERATIONS
+          + " bytes/op, last " + next.toLocalDate());
+    }
+  }
+
+  // bytes allocated per tick's worth of work on the context, after a warm up
+  private void report(String name, Schedule schedule) {
+    ScheduleContext sc = new ScheduleContext(schedule);
+    advance(sc);
+    sc = new ScheduleContext(schedule);
+    long before = allocated();
+    long start = System.nanoTime();
+    advance(sc);
+    long elapsed = System.nanoTime() - start;
+    System.out.println(name + ": " + (allocated() - before) / ITERATIONS + " bytes/op, "
+        + elapsed / ITERATIONS + " ns/op");
+  }
+
+  private static void advance(ScheduleContext sc) {
+    for (int i = 0; i < ITERATIONS && !sc.isComplete(); i++) {
+      sc.getNextTimeMillis();
+      sc.updateNextTime();
+      sc.updateIterations();
+    }
+  }
+
+  private long allocated() {
+    return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private static Schedule newSchedule() {
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setStart("");
+    schedule.setEnd("");
+    schedule.setRunOnce(false);
+    return schedule;
+  }
+}
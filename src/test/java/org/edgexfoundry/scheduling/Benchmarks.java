@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+
+package org.edgexfoundry.scheduling;
+
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Support for the *Benchmark classes in this package. The benchmarks measure the scheduler rather
+ * than test it, print their results and assert nothing, so they are ignored by the build and run by
+ * hand (remove the @Ignore or run the class from the IDE).
+ */
+final class Benchmarks {
+
+  static final String IGNORED = "benchmark, run by hand";
+
+  private Benchmarks() {}
+
+  // heap in use after the collector has run a few times
+  static long usedHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  // collector time of one explicit full collection
+  static long fullCollectionMillis() {
+    long before = collectionMillis();
+    System.gc();
+    return collectionMillis() - before;
+  }
+
+  private static long collectionMillis() {
+    long millis = 0;
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      millis += bean.getCollectionTime();
+    }
+    return millis;
+  }
+
+  // a local HTTP target on an ephemeral port, the request body is drained before respond runs
+  static final class StubTarget implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newFixedThreadPool(4);
+
+    StubTarget(String path, int backlog, HttpHandler respond) throws Exception {
+      // the stub writes headers and body separately, without this Nagle delays keep-alive replies
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), backlog);
+      server.setExecutor(handlers);
+      server.createContext(path, exchange -> {
+        try (InputStream in = exchange.getRequestBody()) {
+          while (in.read() >= 0) {
+            // drain the request
+          }
+        }
+        respond.handle(exchange);
+      });
+      server.start();
+    }
+
+    int getPort() {
+      return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+      server.stop(0);
+      handlers.shutdown();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares next fire computation of the compiled cron expression against a naive minute by minute
+ * search.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class CronExpressionBenchmark {
+
+  private static final String[] EXPRESSIONS =
+      {"*/5 * * * *", "0 0 12 * * ?", "30 2 1 * *", "0 9 * * MON", "0 0 1 1 *", "0 0 29 2 *"};
+  private static final int ITERATIONS = 20000;
+  private static final int NAIVE_ITERATIONS = 20;
+  private static final int ROUNDS = 5;
+
+  private static final ZonedDateTime BASE =
+      ZonedDateTime.of(LocalDateTime.of(2017, 1, 1, 0, 0, 0), ZoneId.systemDefault());
+
+  // defeats dead code elimination
+  private long sink;
+
+  @Test
+  public void compareNextFire() {
+    for (int round = 0; round < ROUNDS; round++) {
+      for (String expression : EXPRESSIONS) {
+        CronExpression cron = CronExpression.parse(expression);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+          sink += cron.next(BASE.plusMinutes(i * 7L)).toEpochSecond();
+        }
+        long compiled = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < NAIVE_ITERATIONS; i++) {
+          sink += naiveNext(cron, BASE.plusMinutes(i * 7L)).toEpochSecond();
+        }
+        long naive = (System.nanoTime() - start) / NAIVE_ITERATIONS;
+
+        System.out.println(
+            "'" + expression + "': compiled " + compiled + " ns/op, naive " + naive + " ns/op");
+      }
+    }
+    System.out.println(sink);
+  }
+
+  private static ZonedDateTime naiveNext(CronExpression cron, ZonedDateTime after) {
+    LocalDateTime t = after.toLocalDateTime().withNano(0).withSecond(0).plusMinutes(1);
+    while (!cron.matches(t)) {
+      t = t.plusMinutes(1);
+    }
+    return t.atZone(after.getZone());
+  }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class CronExpressionTest {
+
+  private static final ZoneId UTC = ZoneId.of("UTC");
+
+  private static final ZonedDateTime BASE =
+      ZonedDateTime.of(LocalDateTime.of(2017, 1, 1, 0, 0, 0), UTC);
+
+  @Test
+  public void testSixFieldsWithQuestionMark() {
+    CronExpression cron = CronExpression.parse("0 0 12 * * ?");
+    assertEquals("wrong next fire", at(2017, 1, 1, 12, 0, 0), cron.next(BASE));
+    assertEquals("wrong fire after noon", at(2017, 1, 2, 12, 0, 0),
+        cron.next(at(2017, 1, 1, 12, 0, 0)));
+  }
+
+  @Test
+  public void testFiveFields() {
+    CronExpression cron = CronExpression.parse("*/15 9-17 * * MON-FRI");
+    // Jan 1 2017 is a Sunday
+    assertEquals("wrong next fire", at(2017, 1, 2, 9, 0, 0), cron.next(BASE));
+    assertEquals("wrong step", at(2017, 1, 2, 9, 15, 0), cron.next(at(2017, 1, 2, 9, 0, 0)));
+    assertEquals("wrong rollover to monday", at(2017, 1, 9, 9, 0, 0),
+        cron.next(at(2017, 1, 6, 17, 45, 0)));
+  }
+
+  @Test
+  public void testLeapDay() {
+    CronExpression cron = CronExpression.parse("0 0 29 2 *");
+    assertEquals("wrong leap day", at(2020, 2, 29, 0, 0, 0), cron.next(BASE));
+  }
+
+  @Test
+  public void testDayOfMonthOrDayOfWeek() {
+    // the 13th or any friday
+    CronExpression cron = CronExpression.parse("0 0 13 * 5");
+    assertEquals("wrong first friday", at(2017, 1, 6, 0, 0, 0), cron.next(BASE));
+    assertEquals("wrong 13th", at(2017, 2, 13, 0, 0, 0), cron.next(at(2017, 2, 10, 0, 0, 0)));
+  }
+
+  @Test
+  public void testSundayAsSeven() {
+    assertEquals("sunday as 7 and 0 differ", CronExpression.parse("0 0 * * 0").next(BASE),
+        CronExpression.parse("0 0 * * 7").next(BASE));
+  }
+
+  @Test
+  public void testMatchesNaiveSearch() {
+    String[] expressions = {"0 0 12 * * ?", "*/7 * * * *", "30 5 1,15 * *", "0 22 * * 1-5",
+        "15 10 * * SAT", "0 0 1 JAN,JUL *", "0/20 0-10 3 * * *", "0 0 31 * *", "5 4 * 2 0"};
+    Random random = new Random(42);
+    for (String expression : expressions) {
+      CronExpression cron = CronExpression.parse(expression);
+      for (int i = 0; i < 20; i++) {
+        ZonedDateTime after = BASE.plusSeconds(random.nextInt(365 * 86400));
+        assertEquals("wrong next fire for '" + expression + "' after " + after,
+            naiveNext(cron, after, expression.split(" ").length == 5), cron.next(after));
+      }
+    }
+  }
+
+  @Test
+  public void testInvalid() {
+    String[] invalid = {"", "* * * *", "* * * * * * *", "60 * * * *", "* * * * MON-SUNDAY",
+        "5-1 * * * *", "0 0 30 2 *", "*/0 * * * *"};
+    for (String expression : invalid) {
+      try {
+        CronExpression.parse(expression);
+        assertTrue("parsed invalid expression '" + expression + "'", false);
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  // step a second at a time from the next whole second, or a minute at a time when only whole
+  // minutes can fire
+  private static ZonedDateTime naiveNext(CronExpression cron, ZonedDateTime after,
+      boolean minutes) {
+    LocalDateTime t = after.toLocalDateTime().withNano(0).plusSeconds(1);
+    int step = 1;
+    if (minutes) {
+      t = after.toLocalDateTime().withNano(0).withSecond(0).plusMinutes(1);
+      step = 60;
+    }
+    while (!cron.matches(t)) {
+      t = t.plusSeconds(step);
+    }
+    return t.atZone(after.getZone());
+  }
+
+  private static ZonedDateTime at(int year, int month, int day, int hour, int minute,
+      int second) {
+    return ZonedDateTime.of(LocalDateTime.of(year, month, day, hour, minute, second), UTC);
+  }
+}
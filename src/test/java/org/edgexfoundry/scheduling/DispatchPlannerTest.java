@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ScheduleEventData;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class DispatchPlannerTest {
+
+  private static final long FIRE_TIME = 1500000000000L;
+
+  @Test
+  public void testUnplannedBatch() {
+    List<PlannedDispatch> planned = new DispatchPlanner(0).plan(newEvents(10), FIRE_TIME, 0);
+    assertEquals("events should be dispatched as one batch", 1, planned.size());
+    assertEquals("batch should be released at the fire time", FIRE_TIME,
+        planned.get(0).getReleaseTime());
+    assertEquals("batch is missing events", 10, planned.get(0).getEvents().length);
+  }
+
+  @Test
+  public void testSplay() {
+    DispatchPlanner planner = new DispatchPlanner(0);
+    List<PlannedDispatch> planned = planner.plan(newEvents(100), FIRE_TIME, 60000);
+    assertEquals("each event should be planned", 100, planned.size());
+    long earliest = Long.MAX_VALUE;
+    long latest = Long.MIN_VALUE;
+    for (PlannedDispatch dispatch : planned) {
+      long offset = dispatch.getReleaseTime() - FIRE_TIME;
+      assertTrue("offset outside the splay window", offset >= 0 && offset < 60000);
+      String eventId = dispatch.getEvents()[0].getId();
+      assertEquals("offset is not deterministic", DispatchPlanner.splay(eventId, 60000), offset);
+      earliest = Math.min(earliest, offset);
+      latest = Math.max(latest, offset);
+    }
+    assertTrue("events were not spread over the window", latest - earliest > 30000);
+  }
+
+  @Test
+  public void testRateCap() {
+    DispatchPlanner planner = new DispatchPlanner(10);
+    List<PlannedDispatch> planned = planner.plan(newEvents(35), FIRE_TIME, 0);
+    Map<Long, Integer> perSecond = new LinkedHashMap<>();
+    for (PlannedDispatch dispatch : planned) {
+      assertTrue("event released before the fire time", dispatch.getReleaseTime() >= FIRE_TIME);
+      perSecond.merge(dispatch.getReleaseTime() / 1000, 1, Integer::sum);
+    }
+    assertEquals("events not spread over four seconds", 4, perSecond.size());
+    for (int count : perSecond.values()) {
+      assertTrue("more than 10 events in a second", count <= 10);
+    }
+    assertEquals("deferred events not counted", 25, planner.getDeferred());
+  }
+
+  @Test
+  public void testLongBurst() {
+    DispatchPlanner planner = new DispatchPlanner(10);
+    List<PlannedDispatch> planned = planner.plan(newEvents(20000), FIRE_TIME, 0);
+    Map<Long, Integer> perSecond = new LinkedHashMap<>();
+    long previous = FIRE_TIME;
+    for (PlannedDispatch dispatch : planned) {
+      assertTrue("events released out of order", dispatch.getReleaseTime() >= previous);
+      previous = dispatch.getReleaseTime();
+      perSecond.merge(previous / 1000, 1, Integer::sum);
+    }
+    assertEquals("events not spread over 2000 seconds", 2000, perSecond.size());
+    assertEquals("deferred events not counted", 19990, planner.getDeferred());
+  }
+
+  @Test
+  public void testFullSecondsSkipped() {
+    DispatchPlanner planner = new DispatchPlanner(2);
+    // fill the second two seconds after the fire, then overflow the fire's own second
+    planner.plan(newEvents(2), FIRE_TIME + 2000, 0);
+    List<PlannedDispatch> planned = planner.plan(newEvents(5), FIRE_TIME, 0);
+    long[] expected = {FIRE_TIME, FIRE_TIME, FIRE_TIME + 1000, FIRE_TIME + 1500, FIRE_TIME + 3000};
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals("event " + i + " released at the wrong time", expected[i],
+          planned.get(i).getReleaseTime());
+    }
+  }
+
+  private ScheduleEvent[] newEvents(int count) {
+    ScheduleEvent[] events = new ScheduleEvent[count];
+    for (int i = 0; i < count; i++) {
+      events[i] = ScheduleEventData.newTestInstance();
+      events[i].setId("event" + i);
+    }
+    return events;
+  }
+}
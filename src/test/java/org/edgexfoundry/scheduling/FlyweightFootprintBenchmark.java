@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Protocol;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Reports the heap held by a synthetic load of schedule events before and after their addressables
+ * and strings are shared.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class FlyweightFootprintBenchmark {
+
+  private static final int EVENTS = 100000;
+  // distinct targets and bodies across the load
+  private static final int TARGETS = 50;
+  private static final int BODIES = 20;
+
+  @Test
+  public void reportFootprint() throws Exception {
+    long empty = Benchmarks.usedHeap();
+    List<ScheduleEvent> events = newEvents();
+    long before = Benchmarks.usedHeap();
+    events.replaceAll(ScheduleEventFlyweights::intern);
+    long after = Benchmarks.usedHeap();
+    System.out.println(events.size() + " events: " + (before - empty) / (1024 * 1024) + " MB ("
+        + (before - empty) / EVENTS + " bytes/event) before, " + (after - empty) / (1024 * 1024)
+        + " MB (" + (after - empty) / EVENTS + " bytes/event) after, "
+        + ScheduleEventFlyweights.size() + " distinct addressables");
+  }
+
+  // events as metadata would deliver them, each deserialized with its own addressable and strings
+  private List<ScheduleEvent> newEvents() {
+    List<ScheduleEvent> events = new ArrayList<>(EVENTS);
+    for (int i = 0; i < EVENTS; i++) {
+      int target = i % TARGETS;
+      Addressable addressable = new Addressable(copy("device-service-" + target), Protocol.HTTP,
+          copy("edgex-device-service-" + target), copy("/api/v1/device/all/readings"),
+          48000 + target);
+      addressable.setId(copy("addressable" + target));
+      ScheduleEvent event = new ScheduleEvent();
+      event.setId("event" + i);
+      event.setName("event" + i);
+      event.setSchedule(copy("schedule" + i / 10));
+      event.setService(copy("device-service-" + target));
+      event.setParameters(
+          copy("{\"device\":\"sensor-" + i % BODIES + "\",\"command\":\"read\",\"values\":[]}"));
+      event.setAddressable(addressable);
+      events.add(event);
+    }
+    return events;
+  }
+
+  private static String copy(String value) {
+    return new String(value.toCharArray());
+  }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.Period;
+
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class FrequencyTest {
+
+  @Test
+  public void testParse() {
+    Frequency frequency = Frequency.parse("P1DT1H");
+    assertEquals("wrong period", Period.ofDays(1), frequency.getPeriod());
+    assertEquals("wrong duration", Duration.ofHours(1), frequency.getDuration());
+    frequency = Frequency.parse("PT0.25S");
+    assertEquals("wrong period", Period.ZERO, frequency.getPeriod());
+    assertEquals("wrong duration", Duration.ofMillis(250), frequency.getDuration());
+  }
+
+  @Test
+  public void testShared() {
+    assertSame("compiled frequency not shared", Frequency.parse("PT15M"), Frequency.parse("PT15M"));
+    assertSame("compiled cron not shared", Frequency.cron("0 0 12 * * ?"),
+        Frequency.cron("0 0 12 * * ?"));
+  }
+
+  @Test
+  public void testRejected() {
+    String[] rejected = {"", "P", "PT", "P0D", "PT0S", "PT0.0001S", "P-1D", "PT-5M", "1D", "PXD",
+        "P1DT", "garbage"};
+    for (String frequency : rejected) {
+      try {
+        Frequency.parse(frequency);
+        assertTrue("accepted frequency '" + frequency + "'", false);
+      } catch (InvalidFrequencyException e) {
+        assertNotNull("rejection has no reason", e.getMessage());
+      }
+    }
+  }
+
+  @Test(expected = InvalidFrequencyException.class)
+  public void testRejectedCron() {
+    Frequency.cron("0 0 30 2 *");
+  }
+
+  @Test
+  public void testOf() {
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setFrequency("");
+    schedule.setCron("0 0 12 * * ?");
+    assertNotNull("cron not used without a frequency", Frequency.of(schedule).getCron());
+    schedule.setCron(null);
+    schedule.setRunOnce(true);
+    assertSame("run once without a frequency", Frequency.ONCE, Frequency.of(schedule));
+    // the frequency of a run once schedule is not validated
+    schedule.setFrequency("PT0S");
+    assertSame("run once with a zero frequency", Frequency.ONCE, Frequency.of(schedule));
+    schedule.setFrequency(" ");
+    assertSame("run once with a blank frequency", Frequency.ONCE, Frequency.of(schedule));
+    schedule.setFrequency("daily");
+    assertSame("run once with an invalid frequency", Frequency.ONCE, Frequency.of(schedule));
+  }
+
+  @Test(expected = InvalidFrequencyException.class)
+  public void testOfNoFrequency() {
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setFrequency(null);
+    schedule.setCron(null);
+    schedule.setRunOnce(false);
+    Frequency.of(schedule);
+  }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class HeapScheduleQueueTest {
+
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0]).withZone(ZoneId.systemDefault());
+
+  private long base;
+
+  private ScheduleQueue queue;
+
+  @Before
+  public void setup() {
+    // start a day out so every context's next time is its start time
+    base = (Instant.now().getEpochSecond() + 86400) * 1000;
+    queue = new HeapScheduleQueue();
+  }
+
+  @Test
+  public void testPollDueInOrderAfterRemovesAndUpdates() {
+    Random random = new Random(42);
+    List<ScheduleContext> contexts = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      ScheduleContext sc = newContext("id" + i, base + 1000 * (1 + random.nextInt(100000)));
+      contexts.add(sc);
+      queue.add(sc);
+    }
+    for (int i = 0; i < 1000; i += 3) {
+      assertTrue("context was not removed", queue.remove(contexts.get(i)));
+    }
+    for (int i = 1; i < 1000; i += 3) {
+      ScheduleContext sc = contexts.get(i);
+      sc.schedule.setStart(FORMATTER
+          .format(Instant.ofEpochMilli(base + 1000 * (1 + random.nextInt(100000)))));
+      sc.reset(sc.schedule);
+      queue.update(sc);
+    }
+    assertEquals("queue size is incorrect", 666, queue.size());
+    long last = 0;
+    ScheduleContext sc;
+    while ((sc = queue.pollDue(Long.MAX_VALUE)) != null) {
+      assertTrue("context polled out of order", sc.getNextTimeMillis() >= last);
+      last = sc.getNextTimeMillis();
+    }
+    assertTrue("queue should be empty", queue.isEmpty());
+  }
+
+  @Test
+  public void testRemoveById() {
+    ScheduleContext sc = newContext("id1", base + 1000);
+    queue.add(sc);
+    // a different context instance for the same schedule id
+    assertTrue("context was not removed by id", queue.remove(newContext("id1", base + 1000)));
+    assertFalse("context was removed twice", queue.remove(sc));
+    assertTrue("queue should be empty", queue.isEmpty());
+  }
+
+  @Test
+  public void testUpdateMovesHead() {
+    ScheduleContext sc1 = newContext("id1", base + 1000);
+    ScheduleContext sc2 = newContext("id2", base + 2000);
+    queue.add(sc1);
+    queue.add(sc2);
+    assertEquals("wrong head deadline", base + 1000, queue.nextDeadline());
+    sc1.schedule.setStart(FORMATTER.format(Instant.ofEpochMilli(base + 3000)));
+    sc1.reset(sc1.schedule);
+    queue.update(sc1);
+    assertEquals("update did not move the head", base + 2000, queue.nextDeadline());
+    assertNull("context polled early", queue.pollDue(base + 1999));
+    assertEquals("wrong context polled", sc2, queue.pollDue(base + 3000));
+    assertEquals("wrong context polled", sc1, queue.pollDue(base + 3000));
+  }
+
+  private ScheduleContext newContext(String id, long epochMilli) {
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setId(id);
+    schedule.setStart(FORMATTER.format(Instant.ofEpochMilli(epochMilli)));
+    schedule.setEnd("");
+    schedule.setRunOnce(false);
+    return new ScheduleContext(schedule);
+  }
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Protocol;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares callback throughput against a local stub target with a new connection per event (as
+ * before the pooled client) and with the pooled keep-alive client.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class HttpExecutorBenchmark {
+
+  private static final int REQUESTS = 5000;
+  private static final int ROUNDS = 3;
+  private static final String BODY = "{\"device\":\"sensor-1\",\"command\":\"read\"}";
+
+  @Test
+  public void compareClients() throws Exception {
+    try (Benchmarks.StubTarget target = new Benchmarks.StubTarget("/target", 0, exchange -> {
+      byte[] response = "ok".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, response.length);
+      exchange.getResponseBody().write(response);
+      exchange.close();
+    })) {
+      for (int round = 0; round < ROUNDS; round++) {
+        runPerConnection(target.getPort());
+        runPooled(target.getPort());
+      }
+    }
+  }
+
+  // the previous executor, a connection per request that is never read or closed
+  private void runPerConnection(int port) throws Exception {
+    long start = System.nanoTime();
+    for (int i = 0; i < REQUESTS; i++) {
+      HttpURLConnection con =
+          (HttpURLConnection) new URL("http://localhost:" + port + "/target").openConnection();
+      con.setRequestMethod("POST");
+      con.setDoOutput(true);
+      con.setRequestProperty("Content-Type", "application/json");
+      OutputStream os = con.getOutputStream();
+      os.write(BODY.getBytes());
+      con.getResponseCode();
+    }
+    report("connection per request", System.nanoTime() - start);
+  }
+
+  private void runPooled(int port) {
+    ScheduleEventHTTPExecutor executor = new ScheduleEventHTTPExecutor();
+    Addressable addressable =
+        new Addressable("target", Protocol.HTTP, "localhost", "/target", port);
+    ScheduleEvent event = new ScheduleEvent("target", addressable, BODY, "schedule", "test");
+    long start = System.nanoTime();
+    for (int i = 0; i < REQUESTS; i++) {
+      executor.execute(event);
+    }
+    report("pooled keep-alive", System.nanoTime() - start);
+    executor.close();
+  }
+
+  private static void report(String client, long nanos) {
+    System.out.println(client + ": " + REQUESTS * 1000000000L / nanos + " requests/s, "
+        + nanos / REQUESTS / 1000 + " us/request");
+  }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.time.Duration;
+import java.time.Period;
+import java.time.ZonedDateTime;
+
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the next time computation of a schedule context with an old start date against stepping
+ * one period at a time from the start.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class NextTimeBenchmark {
+
+  private static final String START = "20150101T000000";
+  private static final String[] FREQUENCIES = {"PT1M", "PT15M", "PT1H", "P1D", "P1DT1H", "P1M"};
+  private static final int ITERATIONS = 1000;
+  private static final int ROUNDS = 3;
+
+  @Test
+  public void compareNextTime() {
+    for (int round = 0; round < ROUNDS; round++) {
+      for (String frequency : FREQUENCIES) {
+        Schedule schedule = ScheduleData.newTestInstance();
+        schedule.setStart(START);
+        schedule.setEnd("");
+        schedule.setFrequency(frequency);
+
+        long start = System.nanoTime();
+        ScheduleContext sc = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+          sc = new ScheduleContext(schedule);
+        }
+        long closedForm = (System.nanoTime() - start) / ITERATIONS;
+
+        start = System.nanoTime();
+        ZonedDateTime stepped = step(sc.getStartTime(), frequency);
+        long loop = System.nanoTime() - start;
+
+        System.out.println(frequency + ": closed form " + closedForm + " ns/op, loop " + loop
+            + " ns/op" + (stepped.isEqual(sc.getNextTime()) ? "" : ", next times differ"));
+      }
+    }
+  }
+
+  // the next time as the loop found it, one period and duration at a time
+  private static ZonedDateTime step(ZonedDateTime next, String frequency) {
+    int time = frequency.indexOf('T');
+    Period period = time == 1 ? Period.ZERO
+        : Period.parse(time == -1 ? frequency : frequency.substring(0, time));
+    Duration duration = time == -1 ? Duration.ZERO : Duration.parse("P" + frequency.substring(time));
+    ZonedDateTime now = ZonedDateTime.now();
+    while (next.compareTo(now) <= 0) {
+      next = next.plus(period);
+      next = next.plus(duration);
+    }
+    return next;
+  }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the heap held by the on heap and off heap schedule queues with a million schedules
+ * queued, and the full collection pause with each loaded. Run with a heap of 3g or more.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class OffHeapStoreBenchmark {
+
+  private static final int SCHEDULES = 1000000;
+  private static final int ROUNDS = 3;
+
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0]).withZone(ZoneId.systemDefault());
+
+  @Test
+  public void compareQueues() throws Exception {
+    List<ScheduleContext> contexts = newContexts();
+    for (int round = 0; round < ROUNDS; round++) {
+      run(ScheduleQueue.HEAP, contexts);
+      run(ScheduleQueue.OFF_HEAP, contexts);
+    }
+  }
+
+  private void run(String type, List<ScheduleContext> contexts) throws Exception {
+    long before = Benchmarks.usedHeap();
+    ScheduleQueue queue = ScheduleQueue.create(type);
+    long start = System.nanoTime();
+    for (ScheduleContext sc : contexts) {
+      queue.add(sc);
+    }
+    long added = System.nanoTime();
+    long after = Benchmarks.usedHeap();
+    long pause = Benchmarks.fullCollectionMillis();
+    System.out.println(type + ": " + (after - before) / SCHEDULES + " heap bytes/schedule, add "
+        + (added - start) / SCHEDULES + " ns/op, full collection " + pause + " ms with "
+        + queue.size() + " queued");
+    queue.clear();
+  }
+
+  private List<ScheduleContext> newContexts() {
+    Random random = new Random(42);
+    long base = (Instant.now().getEpochSecond() + 86400) * 1000;
+    List<ScheduleContext> contexts = new ArrayList<>(SCHEDULES);
+    for (int i = 0; i < SCHEDULES; i++) {
+      Schedule schedule = ScheduleData.newTestInstance();
+      schedule.setId("id" + i);
+      // spread the first fires over a day
+      schedule.setStart(
+          FORMATTER.format(Instant.ofEpochMilli(base + 1000 * (1 + random.nextInt(86400)))));
+      schedule.setEnd("");
+      schedule.setFrequency("P1D");
+      contexts.add(new ScheduleContext(schedule));
+    }
+    return contexts;
+  }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.edgexfoundry.domain.common.HTTPMethod;
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.edgexfoundry.test.data.ScheduleEventData;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class ScheduleCodecTest {
+
+  @Test
+  public void testRoundTrip() {
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setCron(null);
+    schedule.setOrigin(1234);
+    ScheduleEvent event = ScheduleEventData.newTestInstance();
+    event.getAddressable().setMethod(HTTPMethod.DELETE);
+    ScheduleEvent bare = ScheduleEventData.newTestInstance();
+    bare.setId("bare");
+    bare.setAddressable(null);
+
+    byte[] bytes = ScheduleCodec.encode(schedule, Arrays.asList(event, bare));
+    Map<String, ScheduleEvent> events = new LinkedHashMap<>();
+    Schedule decoded = ScheduleCodec.decode(bytes, events);
+
+    assertEquals("id differs", schedule.getId(), decoded.getId());
+    assertEquals("name differs", schedule.getName(), decoded.getName());
+    assertEquals("start differs", schedule.getStart(), decoded.getStart());
+    assertEquals("frequency differs", schedule.getFrequency(), decoded.getFrequency());
+    assertNull("cron should be null", decoded.getCron());
+    assertEquals("run once differs", schedule.getRunOnce(), decoded.getRunOnce());
+    assertEquals("origin differs", 1234, decoded.getOrigin());
+    assertEquals("events differ", Arrays.asList(event.getId(), "bare"),
+        Arrays.asList(events.keySet().toArray()));
+    ScheduleEvent decodedEvent = events.get(event.getId());
+    assertEquals("parameters differ", event.getParameters(), decodedEvent.getParameters());
+    assertEquals("address differs", event.getAddressable().getAddress(),
+        decodedEvent.getAddressable().getAddress());
+    assertEquals("port differs", event.getAddressable().getPort(),
+        decodedEvent.getAddressable().getPort());
+    assertEquals("path differs", event.getAddressable().getPath(),
+        decodedEvent.getAddressable().getPath());
+    assertEquals("method differs", HTTPMethod.DELETE, decodedEvent.getAddressable().getMethod());
+    assertTrue("addressable should be null", events.get("bare").getAddressable() == null);
+  }
+}
@@ -27,6 +27,7 @@ import static org.edgexfoundry.test.data.ScheduleData.TEST_SCHEDULE_ID2;
 import static org.edgexfoundry.test.data.ScheduleData.TEST_SCHEDULE_NAME;
 import static org.edgexfoundry.test.data.ScheduleData.TEST_SCHEDULE_NAME_NONE;
 import static org.edgexfoundry.test.data.ScheduleData.TEST_TIME_2015;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -319,6 +320,52 @@ public class ScheduleContextTest {
     assertFalse("Should have returned false since event is already a key", sc.addScheduleEvent(se));
   }
 
+  @Test
+  public void testScheduleEventArraySnapshot() {
+    Schedule s = ScheduleData.newTestInstance();
+    ScheduleContext sc = new ScheduleContext(s);
+    ScheduleEvent se = ScheduleEventData.newTestInstance();
+    ScheduleEvent[] before = sc.getScheduleEventArray();
+    sc.addScheduleEvent(se);
+    ScheduleEvent[] added = sc.getScheduleEventArray();
+    assertTrue("published snapshot should not change", before.length == 0);
+    assertTrue("snapshot should hold the added event",
+        added.length == 1 && added[0].getId().equals(se.getId()));
+    sc.removeScheduleEventById(se.getId());
+    assertTrue("published snapshot should not change",
+        added.length == 1 && added[0].getId().equals(se.getId()));
+    assertTrue("snapshot should be empty", sc.getScheduleEventArray().length == 0);
+  }
+
+  @Test
+  public void testCompact() {
+    Schedule s = ScheduleData.newTestInstance();
+    s.setStart(TEST_TIME_2015);
+    s.setEnd("");
+    s.setFrequency(TEST_FREQUENCY_1D);
+    ScheduleContext sc = new ScheduleContext(s);
+    ScheduleEvent se = ScheduleEventData.newTestInstance();
+    sc.addScheduleEvent(se);
+    ZonedDateTime start = sc.getStartTime();
+    long next = sc.getNextTimeMillis();
+    sc.compact(null);
+    assertTrue("context should be dormant", sc.isDormant());
+    assertTrue("next time changed", sc.getNextTimeMillis() == next);
+    assertTrue("id should be kept while dormant", s.getId().equals(sc.getId()));
+    sc.updateNextTime();
+    assertTrue("context should be inflated to advance", !sc.isDormant());
+    assertTrue("next time should be a day later",
+        sc.getNextTime().isEqual(Instant.ofEpochMilli(next).atZone(ZoneId.systemDefault()).plusDays(1)));
+    assertTrue("start time changed", start.isEqual(sc.getStartTime()));
+    ScheduleSlabStore store = new ScheduleSlabStore();
+    sc.compact(store);
+    assertTrue("context should be in the store", store.size() == 1);
+    assertTrue("schedule event count should be one.", sc.getScheduleEvents().size() == 1);
+    ScheduleEventData.checkTestData(sc.getScheduleEvents().get(se.getId()), se.getId());
+    assertTrue("context should be inflated", !sc.isDormant());
+    assertTrue("inflating should free the record", store.size() == 0);
+  }
+
   // GET SCHEDULE EVENTS
   // EMPTY
   @Test
@@ -411,6 +458,19 @@ public class ScheduleContextTest {
     assertTrue("schedule context name is incorrect.", sc.getName() == s2.getName());
   }
 
+  @Test
+  public void testResetSameNameKeepsEvents() {
+    Schedule s1 = ScheduleData.newTestInstance();
+    ScheduleContext sc = new ScheduleContext(s1);
+    sc.addScheduleEvent(ScheduleEventData.newTestInstance());
+    // an update arrives as a new instance, its name an equal but distinct string
+    Schedule s2 = ScheduleData.newTestInstance();
+    s2.setName(new String(s1.getName()));
+    s2.setFrequency(TEST_FREQUENCY_1H);
+    sc.reset(s2);
+    assertTrue("schedule event count should be one.", sc.getScheduleEvents().size() == 1);
+  }
+
   @Test
   public void testUpdateNextTime() {
     Schedule s = ScheduleData.newTestInstance();
@@ -418,4 +478,175 @@ public class ScheduleContextTest {
     sc.updateNextTime();
   }
 
+  @Test
+  public void testFrequencyPT1SFromOldStart() {
+    Schedule s = ScheduleData.newTestInstance();
+    s.setStart(ScheduleData.TEST_TIME_2015);
+    s.setEnd("");
+    s.setFrequency("PT1S");
+    long start = System.currentTimeMillis();
+    ScheduleContext sc = new ScheduleContext(s);
+    assertTrue("next time took " + (System.currentTimeMillis() - start) + "ms to compute",
+        System.currentTimeMillis() - start < 1000);
+    ZonedDateTime now = ZonedDateTime.now();
+    assertTrue("next time " + sc.getNextTime() + " is not in the next second",
+        sc.getNextTime().isAfter(now.minusSeconds(1))
+            && !sc.getNextTime().isAfter(now.plusSeconds(1)));
+    assertTrue("next time is not on a whole second", sc.getNextTime().getNano() == 0);
+  }
+
+  @Test
+  public void testSubSecondFrequencyFromOldStart() {
+    // more than Integer.MAX_VALUE occurrences have passed since the start
+    Schedule s = ScheduleData.newTestInstance();
+    s.setStart("20050101T000000");
+    s.setEnd("");
+    s.setFrequency("PT0.1S");
+    ScheduleContext sc = new ScheduleContext(s);
+    long now = System.currentTimeMillis();
+    assertTrue("next time " + sc.getNextTime() + " is not in the next 100ms",
+        sc.getNextTimeMillis() > now - 100 && sc.getNextTimeMillis() <= now + 100);
+    assertTrue("next time is not on the 100ms grid", sc.getNextTimeMillis() % 100 == 0);
+    long next = sc.getNextTimeMillis();
+    sc.updateNextTime();
+    assertTrue("next time should be 100ms later", sc.getNextTimeMillis() == next + 100);
+  }
+
+  @Test
+  public void testSkipLongStall() {
+    // a millisecond schedule stalled for ten minutes skips its missed fires in one step
+    VirtualClock clock = new VirtualClock(1500000000000L);
+    Schedule s = ScheduleData.newTestInstance();
+    s.setStart("");
+    s.setEnd("");
+    s.setFrequency("PT0.001S");
+    ScheduleContext skipping = new ScheduleContext(s, clock);
+    ScheduleContext coalescing = new ScheduleContext(s, clock);
+    long next = skipping.getNextTimeMillis();
+    long now = next + 600000;
+    assertEquals("wrong number of fires skipped", 600001, skipping.skipDue(now));
+    assertEquals("next time should follow now", now + 1, skipping.getNextTimeMillis());
+    assertEquals("wrong number of fires coalesced", 600000, coalescing.skipToLatestDue(now));
+    assertEquals("next time should be now", now, coalescing.getNextTimeMillis());
+    coalescing.updateNextTime(now);
+    assertEquals("occurrences lost their place", now + 1, coalescing.getNextTimeMillis());
+  }
+
+  @Test
+  public void testSkipStopsAtEnd() {
+    VirtualClock clock = new VirtualClock(1500000000000L);
+    DateTimeFormatter formatter =
+        DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0]).withZone(ZoneId.systemDefault());
+    Schedule s = ScheduleData.newTestInstance();
+    s.setStart("");
+    s.setEnd(formatter.format(Instant.ofEpochMilli(1500000005000L)));
+    s.setFrequency("PT0.3S");
+    long now = 1500000009000L;
+    ScheduleContext stepped = new ScheduleContext(s, clock);
+    long expected = 0;
+    while (!stepped.isComplete(now) && stepped.getNextTimeMillis() <= now) {
+      stepped.updateNextTime(now);
+      expected++;
+    }
+    ScheduleContext skipped = new ScheduleContext(s, clock);
+    assertEquals("skip should stop past the end", expected, skipped.skipDue(now));
+    assertEquals("skip should stop past the end", stepped.getNextTimeMillis(),
+        skipped.getNextTimeMillis());
+    assertTrue("schedule should be complete", skipped.isComplete(now));
+  }
+
+  @Test
+  public void testFrequencyP1MFromMonthEnd() {
+    Schedule s = ScheduleData.newTestInstance();
+    s.setStart("20150131T000000");
+    s.setEnd("");
+    s.setFrequency("P1M");
+    ScheduleContext sc = new ScheduleContext(s);
+    ZonedDateTime next = sc.getNextTime();
+    assertTrue("next time is not in the future", next.isAfter(ZonedDateTime.now()));
+    assertTrue("next time is not at a month end",
+        next.getDayOfMonth() == next.toLocalDate().lengthOfMonth());
+    // occurrences are anchored to the start, a short month does not move later ones
+    for (int i = 0; i < 12; i++) {
+      sc.updateNextTime();
+      next = sc.getNextTime();
+      assertTrue("next time " + next + " is not at a month end",
+          next.getDayOfMonth() == next.toLocalDate().lengthOfMonth());
+    }
+  }
+
+  @Test
+  public void testFixedFrequencyNextTimeMillis() {
+    Schedule s = ScheduleData.newTestInstance();
+    s.setStart(ScheduleData.TEST_TIME_2015);
+    s.setEnd("");
+    s.setFrequency("PT1M");
+    ScheduleContext sc = new ScheduleContext(s);
+    long next = sc.getNextTimeMillis();
+    assertTrue("next time millis does not match next time",
+        next == sc.getNextTime().toInstant().toEpochMilli());
+    sc.updateNextTime();
+    assertTrue("next time should be a minute later", sc.getNextTimeMillis() == next + 60000);
+    assertTrue("next time should be a minute later",
+        sc.getNextTime().toInstant().toEpochMilli() == next + 60000);
+  }
+
+  @Test
+  public void testCalendarFireTimes() {
+    Schedule s = ScheduleData.newTestInstance();
+    s.setStart(ScheduleData.TEST_TIME_2015);
+    s.setEnd("");
+    s.setFrequency("P1DT1H");
+    ScheduleContext sc = new ScheduleContext(s);
+    // occurrences are anchored to the start, find the index of the next one
+    ZonedDateTime start = sc.getStartTime();
+    int occurrence = 0;
+    while (start.plusDays(occurrence).plusHours(occurrence).isBefore(sc.getNextTime())) {
+      occurrence++;
+    }
+    // more fires than one batch of precomputed fire times
+    for (int i = 0; i < 40; i++) {
+      sc.updateNextTime();
+      occurrence++;
+      ZonedDateTime next = start.plusDays(occurrence).plusHours(occurrence);
+      assertTrue("next time " + sc.getNextTime() + " should be " + next,
+          next.isEqual(sc.getNextTime()));
+    }
+    // reset drops the precomputed fire times
+    s.setFrequency(TEST_FREQUENCY_1D);
+    sc.reset(s);
+    ZonedDateTime next = sc.getNextTime();
+    sc.updateNextTime();
+    assertTrue("next time should be a day later", next.plusDays(1).isEqual(sc.getNextTime()));
+  }
+
+  // CRON
+  @Test
+  public void testCronNoon() {
+    Schedule s = ScheduleData.newTestInstance();
+    s.setStart(ScheduleData.TEST_TIME_2015);
+    s.setEnd("");
+    s.setFrequency("");
+    s.setCron("0 0 12 * * ?");
+    ScheduleContext sc = new ScheduleContext(s);
+    ZonedDateTime zdt = ZonedDateTime.now().withHour(12).withMinute(0).withSecond(0).withNano(0);
+    if (!zdt.isAfter(ZonedDateTime.now())) {
+      zdt = zdt.plusDays(1);
+    }
+    assertTrue("schedule context next time is incorrect. Is " + sc.getNextTime() + " should be "
+        + zdt, zdt.isEqual(sc.getNextTime()));
+    sc.updateNextTime();
+    assertTrue("schedule context next time should be a day later",
+        zdt.plusDays(1).isEqual(sc.getNextTime()));
+  }
+
+  @Test
+  public void testFrequencyOverCron() {
+    Schedule s = ScheduleData.newTestInstance();
+    s.setFrequency(TEST_FREQUENCY_1M);
+    s.setCron("0 0 12 * * ?");
+    ScheduleContext sc = new ScheduleContext(s);
+    assertTrue("cron should not be used with a frequency", sc.getCron() == null);
+  }
+
 }
@@ -18,11 +18,20 @@
 
 package org.edgexfoundry.scheduling;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Protocol;
 import org.edgexfoundry.domain.meta.Schedule;
 import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.edgexfoundry.test.category.RequiresNone;
@@ -33,6 +42,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 @Category({RequiresNone.class})
@@ -61,6 +71,191 @@ public class ScheduleEventExecutorTest {
     executor.execute(events);
   }
 
+  @Test
+  public void testExcecuteArray() {
+    ScheduleEvent scheduleEvent = ScheduleEventData.newTestInstance();
+    executor.execute(new ScheduleEvent[] {scheduleEvent, scheduleEvent});
+    Mockito.verify(httpExecutor, Mockito.timeout(1000).times(2)).execute(scheduleEvent);
+  }
+
+  @Test
+  public void testExecuteOnCaller() {
+    executor.setWorkers(0);
+    ScheduleEvent scheduleEvent = ScheduleEventData.newTestInstance();
+    executor.execute(scheduleEvent);
+    Mockito.verify(httpExecutor).execute(scheduleEvent);
+  }
+
+  @Test
+  public void testDiscardWhenFull() throws Exception {
+    executor.setWorkers(1);
+    executor.setQueueCapacity(1);
+    executor.setRejectionPolicy(ScheduleEventExecutor.DISCARD);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    stall(running, release);
+    try {
+      ScheduleEvent scheduleEvent = ScheduleEventData.newTestInstance();
+      executor.execute(scheduleEvent);
+      assertTrue("worker did not start", running.await(1, TimeUnit.SECONDS));
+      // one queued, two dropped
+      executor.execute(new ScheduleEvent[] {scheduleEvent, scheduleEvent, scheduleEvent});
+      assertEquals("wrong queue depth", 1, executor.getQueueDepth());
+      assertEquals("wrong rejected count", 2, executor.getRejected());
+      assertEquals("wrong discarded count", 2, executor.getDiscarded());
+    } finally {
+      release.countDown();
+    }
+    Mockito.verify(httpExecutor, Mockito.timeout(1000).times(2))
+        .execute(Mockito.any(ScheduleEvent.class));
+    executor.shutdown();
+  }
+
+  @Test
+  public void testCallerRunsWhenFull() throws Exception {
+    executor.setWorkers(1);
+    executor.setQueueCapacity(1);
+    executor.setRejectionPolicy(ScheduleEventExecutor.CALLER_RUNS);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> threads = stall(running, release);
+    ScheduleEvent scheduleEvent = ScheduleEventData.newTestInstance();
+    executor.execute(scheduleEvent);
+    assertTrue("worker did not start", running.await(1, TimeUnit.SECONDS));
+    executor.execute(scheduleEvent);
+    // the queue is full, so this one runs on the caller
+    executor.execute(scheduleEvent);
+    release.countDown();
+    Mockito.verify(httpExecutor, Mockito.timeout(1000).times(3)).execute(scheduleEvent);
+    assertEquals("rejected event not counted", 1, executor.getRejected());
+    assertEquals("rejected event dropped", 0, executor.getDiscarded());
+    assertTrue("rejected event did not run on the caller",
+        threads.contains(Thread.currentThread().getName()));
+    executor.shutdown();
+  }
+
+  @Test
+  public void testCallerRunsHandOversDoNotRecurse() throws Exception {
+    executor.setWorkers(1);
+    executor.setQueueCapacity(1);
+    executor.setRejectionPolicy(ScheduleEventExecutor.CALLER_RUNS);
+    executor.setBulkheads(1, 1, 1, 1000, 1000);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ScheduleEvent held = ScheduleEventData.newTestInstance();
+    ScheduleEvent other = ScheduleEventData.newTestInstance();
+    other.setAddressable(new Addressable("other", Protocol.HTTP, "other", "/api", 48080));
+    CountDownLatch otherRunning = new CountDownLatch(1);
+    CountDownLatch otherRelease = new CountDownLatch(1);
+    List<Integer> depths = new CopyOnWriteArrayList<>();
+    Mockito.doAnswer(invocation -> {
+      if (invocation.getArguments()[0] == other) {
+        return true;
+      }
+      depths.add(Thread.currentThread().getStackTrace().length);
+      if (running.getCount() > 0) {
+        running.countDown();
+        release.await(5, TimeUnit.SECONDS);
+      }
+      return true;
+    }).when(httpExecutor).execute(Mockito.any(ScheduleEvent.class));
+    executor.execute(held);
+    assertTrue("worker did not start", running.await(1, TimeUnit.SECONDS));
+    // the target's other events are held, another target's event fills the queue, so every
+    // hand over from the worker is rejected and runs on the worker
+    ScheduleEvent[] events = new ScheduleEvent[200];
+    Arrays.fill(events, held);
+    executor.execute(events);
+    executor.execute(other);
+    release.countDown();
+    Mockito.verify(httpExecutor, Mockito.timeout(5000).times(201)).execute(held);
+    int spread = Collections.max(depths) - Collections.min(depths.subList(1, depths.size()));
+    assertTrue("hand overs recursed " + spread + " frames deep", spread < 50);
+    executor.shutdown();
+  }
+
+  @Test
+  public void testVirtualThreads() {
+    executor.setDispatchMode(ScheduleEventExecutor.VIRTUAL);
+    List<String> threads = stall(new CountDownLatch(0), new CountDownLatch(0));
+    ScheduleEvent scheduleEvent = ScheduleEventData.newTestInstance();
+    executor.execute(scheduleEvent);
+    Mockito.verify(httpExecutor, Mockito.timeout(1000)).execute(scheduleEvent);
+    // virtual threads from JDK 21, the worker pool before
+    String version = System.getProperty("java.specification.version");
+    boolean supported = !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+    assertEquals("wrong dispatch thread for JDK " + version, supported,
+        threads.get(0).startsWith("scheduler-event-virtual-"));
+    assertTrue("event did not run on a dispatch thread",
+        threads.get(0).startsWith("scheduler-event-"));
+    executor.shutdown();
+  }
+
+  @Test
+  public void testSlowTargetDoesNotStarveOthers() throws Exception {
+    executor.setWorkers(2);
+    executor.setBulkheads(1, 1, 1, 1000, 10);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    stall(running, release);
+    ScheduleEvent slow = ScheduleEventData.newTestInstance();
+    ScheduleEvent healthy = ScheduleEventData.newTestInstance();
+    healthy.setAddressable(new Addressable("healthy", Protocol.HTTP, "healthy", "/api", 48080));
+    try {
+      executor.execute(slow);
+      assertTrue("slow target not called", running.await(1, TimeUnit.SECONDS));
+      // the slow target holds one worker, its other events wait in its bulkhead
+      executor.execute(new ScheduleEvent[] {slow, slow, healthy});
+      Mockito.verify(httpExecutor, Mockito.timeout(1000)).execute(healthy);
+      assertEquals("slow target events not held", 2, executor.getTargetQueued());
+    } finally {
+      release.countDown();
+    }
+    Mockito.verify(httpExecutor, Mockito.timeout(1000).times(3)).execute(slow);
+    assertEquals("events held after release", 0, executor.getTargetQueued());
+    assertEquals("wrong targets", 2, executor.getTargetLimits().size());
+    executor.shutdown();
+  }
+
+  @Test
+  public void testBulkheadsOnCaller() throws Exception {
+    executor.setWorkers(0);
+    executor.setBulkheads(1, 1, 1, 1000, 10);
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> threads = stall(running, release);
+    ScheduleEvent scheduleEvent = ScheduleEventData.newTestInstance();
+    Thread first = new Thread(() -> executor.execute(scheduleEvent), "first-caller");
+    first.start();
+    try {
+      assertTrue("first caller did not start", running.await(1, TimeUnit.SECONDS));
+      // the target is at its limit, the second caller's events are held rather than run
+      executor.execute(new ScheduleEvent[] {scheduleEvent, scheduleEvent});
+      assertEquals("events not held", 2, executor.getTargetQueued());
+    } finally {
+      release.countDown();
+    }
+    first.join(5000);
+    // the caller holding the slot runs the held events once its own call completes
+    assertEquals("held events not run by the slot holder",
+        Arrays.asList("first-caller", "first-caller", "first-caller"), threads);
+    assertEquals("events held after release", 0, executor.getTargetQueued());
+  }
+
+  // the http executor records its threads and holds the first call until released
+  private List<String> stall(CountDownLatch running, CountDownLatch release) {
+    List<String> threads = new CopyOnWriteArrayList<>();
+    Mockito.doAnswer(invocation -> {
+      threads.add(Thread.currentThread().getName());
+      if (running.getCount() > 0) {
+        running.countDown();
+        release.await(5, TimeUnit.SECONDS);
+      }
+      return true;
+    }).when(httpExecutor).execute(Mockito.any(ScheduleEvent.class));
+    return threads;
+  }
+
   @Test
   public void testExcecuteWithNull() {
     Map<String, ScheduleEvent> events = null;
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.edgexfoundry.test.data.ScheduleEventData;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class ScheduleEventFlyweightsTest {
+
+  @Test
+  public void testEqualEventsShareParts() {
+    ScheduleEvent event1 = newEvent("event1");
+    ScheduleEvent event2 = newEvent("event2");
+    assertNotSame("test events should not share an addressable", event1.getAddressable(),
+        event2.getAddressable());
+    ScheduleEvent interned1 = ScheduleEventFlyweights.intern(event1);
+    ScheduleEvent interned2 = ScheduleEventFlyweights.intern(event2);
+    assertSame("addressable is not shared", interned1.getAddressable(),
+        interned2.getAddressable());
+    assertSame("address is not shared", interned1.getAddressable().getAddress(),
+        interned2.getAddressable().getAddress());
+    assertSame("service is not shared", interned1.getService(), interned2.getService());
+    ScheduleEventData.checkTestData(interned2, "event2");
+  }
+
+  @Test
+  public void testCallerEventUnchanged() {
+    ScheduleEvent event1 = newEvent("event1");
+    ScheduleEvent event2 = newEvent("event2");
+    Addressable addressable = event2.getAddressable();
+    String service = event2.getService();
+    String parameters = event2.getParameters();
+    ScheduleEventFlyweights.intern(event1);
+    ScheduleEvent interned = ScheduleEventFlyweights.intern(event2);
+    assertNotSame("caller event was returned", event2, interned);
+    assertSame("caller addressable was replaced", addressable, event2.getAddressable());
+    assertSame("caller service was replaced", service, event2.getService());
+    assertSame("caller parameters were replaced", parameters, event2.getParameters());
+    assertEquals("parameters should be carried over", parameters, interned.getParameters());
+  }
+
+  @Test
+  public void testEqualPayloadsShared() {
+    ScheduleEvent event1 = newEvent("event1");
+    ScheduleEvent event2 = newEvent("event2");
+    assertNotSame("test events should not share a payload", event1.getParameters(),
+        event2.getParameters());
+    assertSame("payload is not shared", ScheduleEventFlyweights.intern(event1).getParameters(),
+        ScheduleEventFlyweights.intern(event2).getParameters());
+  }
+
+  @Test
+  public void testLongPayloadNotPooled() {
+    char[] chars = new char[ScheduleEventFlyweights.MAX_POOLED_PAYLOAD + 1];
+    Arrays.fill(chars, 'x');
+    ScheduleEvent event1 = newEvent("event1");
+    ScheduleEvent event2 = newEvent("event2");
+    event1.setParameters(new String(chars));
+    event2.setParameters(new String(chars));
+    ScheduleEventFlyweights.intern(event1);
+    assertSame("long payload was pooled", event2.getParameters(),
+        ScheduleEventFlyweights.intern(event2).getParameters());
+  }
+
+  @Test
+  public void testUrlPrefixShared() {
+    ScheduleEvent event1 = newEvent("event1");
+    ScheduleEvent event2 = newEvent("event2");
+    event2.getAddressable().setPath("/other");
+    String prefix = ScheduleEventFlyweights.urlPrefix(event1.getAddressable());
+    assertSame("url prefix is not shared", prefix,
+        ScheduleEventFlyweights.urlPrefix(event2.getAddressable()));
+    assertTrue("url prefix is incorrect", prefix.endsWith("://"
+        + event1.getAddressable().getAddress() + ":" + event1.getAddressable().getPort()));
+  }
+
+  @Test
+  public void testPasswordNotCanonicalized() {
+    ScheduleEvent event1 = newEvent("event1");
+    ScheduleEvent event2 = newEvent("event2");
+    event1.getAddressable().setPassword(new String("secret"));
+    event2.getAddressable().setPassword(new String("secret"));
+    Addressable addressable = ScheduleEventFlyweights.intern(event1).getAddressable();
+    ScheduleEventFlyweights.intern(event2);
+    assertSame("password should be kept as given", event1.getAddressable().getPassword(),
+        addressable.getPassword());
+  }
+
+  @Test
+  public void testIdentifiersBounded() {
+    for (int i = 0; i < ScheduleEventFlyweights.MAX_IDENTIFIERS * 2; i++) {
+      ScheduleEventFlyweights.canonical("service" + i);
+    }
+    String value = "service0";
+    assertSame("evicted identifier should not be canonical", value,
+        ScheduleEventFlyweights.canonical(value));
+  }
+
+  @Test
+  public void testDifferentAddressablesNotShared() {
+    ScheduleEvent event1 = newEvent("event1");
+    ScheduleEvent event2 = newEvent("event2");
+    event2.getAddressable().setPort(event1.getAddressable().getPort() + 1);
+    assertNotSame("different addressables are shared",
+        ScheduleEventFlyweights.intern(event1).getAddressable(),
+        ScheduleEventFlyweights.intern(event2).getAddressable());
+  }
+
+  @Test
+  public void testNoAddressable() {
+    ScheduleEvent event = newEvent("event1");
+    event.setAddressable(null);
+    event.setParameters(null);
+    ScheduleEvent interned = ScheduleEventFlyweights.intern(event);
+    assertNull("addressable should stay null", interned.getAddressable());
+    assertNull("parameters should stay null", interned.getParameters());
+  }
+
+  @Test
+  public void testContextInternsEvents() {
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setStart("");
+    schedule.setEnd("");
+    ScheduleContext sc = new ScheduleContext(schedule);
+    ScheduleEvent event1 = newEvent("event1");
+    ScheduleEvent event2 = newEvent("event2");
+    Addressable addressable = event1.getAddressable();
+    sc.addScheduleEvent(event1);
+    sc.addScheduleEvent(event2);
+    Addressable shared = sc.getScheduleEvents().get("event1").getAddressable();
+    assertSame("context events do not share an addressable", shared,
+        sc.getScheduleEvents().get("event2").getAddressable());
+    assertSame("caller addressable was replaced", addressable, event1.getAddressable());
+    // inflating a compacted context shares again
+    sc.compact(null);
+    assertSame("inflated events do not share an addressable",
+        sc.getScheduleEvents().get("event1").getAddressable(), shared);
+  }
+
+  // a test event with its own copies of every string, as if deserialized
+  private ScheduleEvent newEvent(String id) {
+    ScheduleEvent event = ScheduleEventData.newTestInstance();
+    event.setId(id);
+    event.setParameters(new String(event.getParameters()));
+    event.setService(new String(event.getService()));
+    event.getAddressable().setAddress(new String(event.getAddressable().getAddress()));
+    event.getAddressable().setPath(new String(event.getAddressable().getPath()));
+    return event;
+  }
+}
@@ -18,8 +18,24 @@
 
 package org.edgexfoundry.scheduling;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.lang.reflect.FieldUtils;
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Protocol;
 import org.edgexfoundry.domain.meta.Schedule;
 import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.edgexfoundry.test.category.RequiresNone;
@@ -31,6 +47,8 @@ import org.junit.experimental.categories.Category;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
 
+import com.sun.net.httpserver.HttpServer;
+
 @Category({RequiresNone.class})
 public class ScheduleEventHTTPExecutorTest {
 
@@ -69,7 +87,108 @@ public class ScheduleEventHTTPExecutorTest {
     ScheduleEvent se = ScheduleEventData.newTestInstance();
     se.setAddressable(null);
     assertTrue("schedule event count should be zero.", sc.getScheduleEvents().size() == 0);
-    executor.execute(se);
+    assertFalse("call without an address reported successful", executor.execute(se));
+  }
+
+  @Test
+  public void testExecuteReusesConnection() throws Exception {
+    // stub target recording the client port and body of each request
+    List<Integer> ports = new CopyOnWriteArrayList<>();
+    List<String> bodies = new CopyOnWriteArrayList<>();
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/target", exchange -> {
+      ports.add(exchange.getRemoteAddress().getPort());
+      bodies.add(read(exchange.getRequestBody()));
+      byte[] response = "ok".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, response.length);
+      exchange.getResponseBody().write(response);
+      exchange.close();
+    });
+    server.start();
+    try {
+      Addressable addressable = new Addressable("target", Protocol.HTTP, "localhost", "/target",
+          server.getAddress().getPort());
+      ScheduleEvent se = new ScheduleEvent("target", addressable, "{\"a\":1}", "schedule", "test");
+      for (int i = 0; i < 3; i++) {
+        assertTrue("call not reported successful", executor.execute(se));
+      }
+    } finally {
+      executor.close();
+      server.stop(0);
+    }
+    assertEquals("wrong bodies received", Arrays.asList("{\"a\":1}", "{\"a\":1}", "{\"a\":1}"),
+        bodies);
+    assertEquals("connection was not reused", 1, new HashSet<>(ports).size());
+  }
+
+  @Test
+  public void testExecuteReusesCompiledRequest() throws Exception {
+    // stub target recording the declared length and body of each request
+    List<String> lengths = new CopyOnWriteArrayList<>();
+    List<String> bodies = new CopyOnWriteArrayList<>();
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/target", exchange -> {
+      lengths.add(exchange.getRequestHeaders().getFirst("Content-Length"));
+      bodies.add(read(exchange.getRequestBody()));
+      exchange.sendResponseHeaders(204, -1);
+      exchange.close();
+    });
+    server.start();
+    try {
+      Addressable addressable = new Addressable("target", Protocol.HTTP, "localhost", "/target",
+          server.getAddress().getPort());
+      ScheduleEvent se = new ScheduleEvent("target", addressable, "{\"t\":\"25\u00b0C\"}",
+          "schedule", "test");
+      se.setId("event");
+      assertTrue("call not reported successful", executor.execute(se));
+      assertTrue("call not reported successful", executor.execute(se));
+      assertEquals("request not compiled once", 1, executor.requestCount());
+
+      // an updated event is a new instance and is compiled afresh
+      ScheduleEvent updated =
+          new ScheduleEvent("target", addressable, "{\"t\":1}", "schedule", "test");
+      updated.setId("event");
+      assertTrue("call not reported successful", executor.execute(updated));
+      assertEquals("stale request kept", 1, executor.requestCount());
+
+      executor.invalidate("event");
+      assertEquals("request not invalidated", 0, executor.requestCount());
+    } finally {
+      executor.close();
+      server.stop(0);
+    }
+    assertEquals("wrong bodies received",
+        Arrays.asList("{\"t\":\"25\u00b0C\"}", "{\"t\":\"25\u00b0C\"}", "{\"t\":1}"),
+        bodies);
+    // the degree sign is two bytes in UTF-8
+    assertEquals("wrong content lengths", Arrays.asList("13", "13", "7"), lengths);
+  }
+
+  @Test(timeout = 10000)
+  public void testExecuteTimesOutStalledTarget() throws Exception {
+    // stub target that accepts the request and never answers
+    CountDownLatch release = new CountDownLatch(1);
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/target", exchange -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.close();
+    });
+    server.start();
+    try {
+      FieldUtils.writeField(executor, "timeout", 200, true);
+      Addressable addressable = new Addressable("target", Protocol.HTTP, "localhost", "/target",
+          server.getAddress().getPort());
+      ScheduleEvent se = new ScheduleEvent("target", addressable, "{}", "schedule", "test");
+      assertFalse("stalled call reported successful", executor.execute(se));
+    } finally {
+      release.countDown();
+      executor.close();
+      server.stop(0);
+    }
   }
 
 //  @Test
@@ -78,4 +197,13 @@ public class ScheduleEventHTTPExecutorTest {
 //    executor.execute(events);
 //  }
 
+  private static String read(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[256];
+    int read;
+    while ((read = in.read(buffer)) >= 0) {
+      out.write(buffer, 0, read);
+    }
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
 }
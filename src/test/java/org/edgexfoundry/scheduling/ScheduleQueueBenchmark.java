@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang.reflect.FieldUtils;
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the schedule queue implementations head to head.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class ScheduleQueueBenchmark {
+
+  private static final int SCHEDULES = 100000;
+  private static final int ROUNDS = 5;
+
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0]).withZone(ZoneId.systemDefault());
+
+  @Test
+  public void compareQueues() {
+    long base = (Instant.now().getEpochSecond() + 86400) * 1000;
+    List<ScheduleContext> contexts = newContexts(base);
+    for (int round = 0; round < ROUNDS; round++) {
+      run(ScheduleQueue.HEAP, contexts, base);
+      run(ScheduleQueue.WHEEL, contexts, base);
+    }
+  }
+
+  @Test
+  public void compareCallbacks() {
+    long base = (Instant.now().getEpochSecond() + 86400) * 1000;
+    List<ScheduleContext> contexts = newContexts(base);
+    for (int round = 0; round < ROUNDS; round++) {
+      runCallbacks(ScheduleQueue.HEAP, contexts);
+      runCallbacks(ScheduleQueue.WHEEL, contexts);
+    }
+  }
+
+  @Test
+  public void compareShards() throws Exception {
+    for (int round = 0; round < ROUNDS; round++) {
+      for (int shards = 1; shards <= Runtime.getRuntime().availableProcessors(); shards *= 2) {
+        runShards(shards);
+      }
+    }
+  }
+
+  // firing throughput with SCHEDULES schedules all due at once and a no-op executor
+  private void runShards(int shards) throws Exception {
+    LongAdder fires = new LongAdder();
+    Scheduler scheduler = new Scheduler();
+    scheduler.setScheduleShards(shards);
+    FieldUtils.writeField(scheduler, "scheduleEventExecutor", new ScheduleEventExecutor() {
+      @Override
+      public void execute(ScheduleEvent[] events) {
+        fires.increment();
+      }
+    }, true);
+    String start = FORMATTER.format(Instant.now().plusSeconds(5));
+    for (int i = 0; i < SCHEDULES; i++) {
+      Schedule schedule = ScheduleData.newTestInstance();
+      schedule.setId("id" + i);
+      schedule.setStart(start);
+      schedule.setEnd("");
+      schedule.setFrequency("PT1H");
+      scheduler.createScheduleContext(schedule);
+    }
+    scheduler.startTimer();
+    // time from the first fire to the first fire of every schedule
+    while (fires.sum() == 0) {
+      Thread.sleep(1);
+    }
+    long first = System.nanoTime();
+    while (fires.sum() < SCHEDULES) {
+      Thread.sleep(1);
+    }
+    long elapsed = System.nanoTime() - first;
+    scheduler.stopTimer();
+
+    System.out.println(shards + " shards: " + SCHEDULES * 1000000000L / elapsed + " fires/s");
+  }
+
+  // cost of metadata schedule update and delete callbacks with SCHEDULES schedules loaded
+  private void runCallbacks(String type, List<ScheduleContext> contexts) {
+    Scheduler scheduler = new Scheduler();
+    scheduler.setScheduleQueueType(type);
+    for (ScheduleContext sc : contexts) {
+      scheduler.createScheduleContext(sc.schedule);
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < contexts.size(); i += 10) {
+      scheduler.updateScheduleContext(contexts.get(i).schedule);
+    }
+    long updated = System.nanoTime();
+    for (int i = 0; i < contexts.size(); i += 10) {
+      scheduler.removeScheduleById(contexts.get(i).getId());
+    }
+    long removed = System.nanoTime();
+
+    System.out.println(type + ": update callback " + perOp(updated - start, contexts.size() / 10)
+        + " ns/op, remove callback " + perOp(removed - updated, contexts.size() / 10) + " ns/op");
+  }
+
+  private void run(String type, List<ScheduleContext> contexts, long base) {
+    ScheduleQueue queue = ScheduleQueue.create(type);
+    queue.pollDue(base);
+
+    long start = System.nanoTime();
+    for (ScheduleContext sc : contexts) {
+      queue.add(sc);
+    }
+    long added = System.nanoTime();
+
+    // cancel every tenth schedule, as metadata callbacks would
+    for (int i = 0; i < contexts.size(); i += 10) {
+      queue.remove(contexts.get(i));
+    }
+    long removed = System.nanoTime();
+
+    int polled = 0;
+    for (long now = base; !queue.isEmpty(); now += 60000) {
+      while (queue.pollDue(now) != null) {
+        polled++;
+      }
+    }
+    long drained = System.nanoTime();
+
+    System.out.println(type + ": add " + perOp(added - start, contexts.size()) + " ns/op, remove "
+        + perOp(removed - added, contexts.size() / 10) + " ns/op, poll "
+        + perOp(drained - removed, polled) + " ns/op");
+  }
+
+  private List<ScheduleContext> newContexts(long base) {
+    Random random = new Random(42);
+    List<ScheduleContext> contexts = new ArrayList<>(SCHEDULES);
+    for (int i = 0; i < SCHEDULES; i++) {
+      Schedule schedule = ScheduleData.newTestInstance();
+      schedule.setId("id" + i);
+      schedule.setStart(
+          FORMATTER.format(Instant.ofEpochMilli(base + 1000 * (1 + random.nextInt(86400)))));
+      schedule.setEnd("");
+      schedule.setRunOnce(false);
+      contexts.add(new ScheduleContext(schedule));
+    }
+    return contexts;
+  }
+
+  private static long perOp(long nanos, int ops) {
+    return ops == 0 ? 0 : nanos / ops;
+  }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class ScheduleSlabStoreTest {
+
+  @Test
+  public void testPutGetRemove() {
+    ScheduleSlabStore store = new ScheduleSlabStore(64);
+    int first = store.put(bytes("first"));
+    int second = store.put(bytes("second"));
+    assertEquals("records not stored", 2, store.size());
+    assertArrayEquals("record differs", bytes("first"), store.get(first));
+    assertArrayEquals("record differs", bytes("second"), store.remove(second));
+    assertEquals("record not removed", 1, store.size());
+    assertEquals("live bytes differ", 5, store.getLiveBytes());
+  }
+
+  @Test
+  public void testRecordsShareSlabs() {
+    ScheduleSlabStore store = new ScheduleSlabStore(1024);
+    for (int i = 0; i < 100; i++) {
+      store.put(new byte[100]);
+    }
+    assertEquals("records should be packed into slabs", 10, store.getSlabCount());
+  }
+
+  @Test
+  public void testLargeRecord() {
+    ScheduleSlabStore store = new ScheduleSlabStore(16);
+    byte[] large = new byte[100];
+    new Random(1).nextBytes(large);
+    int handle = store.put(large);
+    assertArrayEquals("record differs", large, store.get(handle));
+  }
+
+  @Test
+  public void testChurnCompactsSlabs() {
+    ScheduleSlabStore store = new ScheduleSlabStore(1024);
+    Random random = new Random(42);
+    List<Integer> handles = new ArrayList<>();
+    List<byte[]> records = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      if (!handles.isEmpty() && random.nextInt(3) == 0) {
+        int index = random.nextInt(handles.size());
+        assertArrayEquals("record differs", records.get(index), store.remove(handles.get(index)));
+        handles.remove(index);
+        records.remove(index);
+      } else {
+        byte[] record = new byte[1 + random.nextInt(200)];
+        random.nextBytes(record);
+        handles.add(store.put(record));
+        records.add(record);
+      }
+    }
+    // every record survives being moved, and removed records do not pin their slabs
+    for (int i = 0; i < handles.size(); i++) {
+      assertArrayEquals("record differs", records.get(i), store.get(handles.get(i)));
+    }
+    assertEquals("size differs", handles.size(), store.size());
+    assertTrue("slabs not compacted, " + store.getSlabBytes() + " bytes for "
+        + store.getLiveBytes() + " live",
+        store.getSlabBytes() <= 2 * store.getLiveBytes() + 3 * 1024);
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
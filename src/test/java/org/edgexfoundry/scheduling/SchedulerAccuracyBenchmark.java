@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.edgexfoundry.test.data.ScheduleEventData;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Measures firing accuracy (lateness of each fire against its scheduled time) for a set of
+ * sub-second schedules driven by the scheduler timer.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class SchedulerAccuracyBenchmark {
+
+  private static final String[] FREQUENCIES = {"PT0.25S", "PT0.1S", "PT1S"};
+  private static final int SCHEDULES_PER_FREQUENCY = 10;
+  private static final long RUN_MILLIS = 30000;
+
+  @InjectMocks
+  private Scheduler scheduler;
+
+  @Mock
+  private ScheduleEventExecutor scheduleEventExecutor;
+
+  private List<Long> lateness = Collections.synchronizedList(new ArrayList<>());
+
+  @Before
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @Test
+  public void measureAccuracy() throws Exception {
+    List<ScheduleContext> contexts = new ArrayList<>();
+    for (String frequency : FREQUENCIES) {
+      for (int i = 0; i < SCHEDULES_PER_FREQUENCY; i++) {
+        Schedule schedule = ScheduleData.newTestInstance();
+        schedule.setId(frequency + i);
+        schedule.setStart("");
+        schedule.setEnd("");
+        schedule.setFrequency(frequency);
+        scheduler.createScheduleContext(schedule);
+        contexts.add(scheduler.getScheduleContext(schedule.getId()));
+      }
+    }
+    // each schedule has one event keyed by the schedule id and fires on a grid from its start,
+    // lateness is the distance past the last grid point
+    for (ScheduleContext sc : contexts) {
+      ScheduleEvent event = ScheduleEventData.newTestInstance();
+      event.setId(sc.getId());
+      sc.addScheduleEvent(event);
+    }
+    Mockito.doAnswer(invocation -> {
+      long now = System.currentTimeMillis();
+      for (ScheduleEvent event : (ScheduleEvent[]) invocation.getArguments()[0]) {
+        ScheduleContext sc = scheduler.getScheduleContext(event.getId());
+        long period = Duration.parse(sc.schedule.getFrequency()).toMillis();
+        lateness.add((now - sc.getStartTime().toInstant().toEpochMilli()) % period);
+      }
+      return null;
+    }).when(scheduleEventExecutor).execute(Mockito.any(ScheduleEvent[].class));
+
+    scheduler.startTimer();
+    Thread.sleep(RUN_MILLIS);
+    scheduler.stopTimer();
+
+    List<Long> sorted = new ArrayList<>(lateness);
+    Collections.sort(sorted);
+    System.out.println("fires " + sorted.size() + ", lateness ms p50 " + percentile(sorted, 50)
+        + " p99 " + percentile(sorted, 99) + " max " + sorted.get(sorted.size() - 1));
+  }
+
+  private static long percentile(List<Long> sorted, int percentile) {
+    return sorted.get((int) Math.min(sorted.size() - 1, (long) sorted.size() * percentile / 100));
+  }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import org.apache.commons.lang.reflect.FieldUtils;
+import org.edgexfoundry.controller.ScheduleClient;
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.edgexfoundry.test.data.ScheduleEventData;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Soaks the scheduler with short lived run once schedules in virtual time for several weeks,
+ * printing the schedules held and the heap used after a GC once a simulated day. Both should level
+ * off once the retention is reached.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class SchedulerSoakBenchmark {
+
+  private static final int SCHEDULES_PER_MINUTE = 50;
+  private static final int DAYS = 14;
+  private static final long MINUTE = 60000L;
+
+  @Test
+  public void soak() throws Exception {
+    long base = 1500000000000L;
+    VirtualClock clock = new VirtualClock(base);
+    Scheduler scheduler = new Scheduler();
+    scheduler.setClock(clock);
+    FieldUtils.writeField(scheduler, "retention", 3600000L, true);
+    FieldUtils.writeField(scheduler, "maxRetained", 10000, true);
+    FieldUtils.writeField(scheduler, "scheduleEventExecutor", new ScheduleEventExecutor() {
+      @Override
+      public void execute(ScheduleEvent[] events) {
+        // nothing to call
+      }
+    }, true);
+    ScheduleClient scheduleClient = Mockito.mock(ScheduleClient.class);
+    FieldUtils.writeField(scheduler, "scheduleClient", scheduleClient, true);
+
+    long created = 0;
+    for (int day = 1; day <= DAYS; day++) {
+      for (long minute = 0; minute < 1440; minute++) {
+        for (int i = 0; i < SCHEDULES_PER_MINUTE; i++, created++) {
+          Schedule schedule = ScheduleData.newTestInstance();
+          schedule.setId("schedule" + created);
+          schedule.setName("schedule" + created);
+          schedule.setStart("");
+          schedule.setEnd("");
+          schedule.setRunOnce(true);
+          scheduler.createScheduleContext(schedule);
+          ScheduleEvent event = ScheduleEventData.newTestInstance();
+          event.setId("event" + created);
+          event.setSchedule(schedule.getName());
+          Mockito.when(scheduleClient.scheduleForName(schedule.getName())).thenReturn(schedule);
+          scheduler.addScheduleEventToScheduleContext(event);
+          Mockito.reset(scheduleClient);
+        }
+        scheduler.simulate(clock.millis() + MINUTE);
+      }
+      System.out.println("day " + day + ": " + created + " created, "
+          + scheduler.getRetainedSchedules() + " retained, " + scheduler.getReclaimedSchedules()
+          + " reclaimed, heap used " + Benchmarks.usedHeap() / 1024 + " KB");
+    }
+  }
+}
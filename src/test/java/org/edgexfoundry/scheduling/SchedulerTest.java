@@ -18,25 +18,48 @@
 
 package org.edgexfoundry.scheduling;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang.reflect.FieldUtils;
 import org.edgexfoundry.controller.ScheduleClient;
 import org.edgexfoundry.controller.ScheduleEventClient;
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Protocol;
 import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
 import org.edgexfoundry.test.category.RequiresNone;
 import org.edgexfoundry.test.data.ScheduleData;
+import org.edgexfoundry.test.data.ScheduleEventData;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import com.sun.net.httpserver.HttpServer;
+
 @Category({RequiresNone.class})
 public class SchedulerTest {
 
@@ -50,6 +73,9 @@ public class SchedulerTest {
   @Mock
   private ScheduleClient scheduleClient;
 
+  @Mock
+  private ScheduleEventExecutor scheduleEventExecutor;
+
   @Before
   public void setup() {
     MockitoAnnotations.initMocks(this);
@@ -100,9 +126,616 @@ public class SchedulerTest {
         scheduler.removeScheduleById(schedule.getId()));
   }
 
+  @Test(expected = InvalidFrequencyException.class)
+  public void testCreateScheduleContextInvalidFrequency() {
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setFrequency("P0D");
+    scheduler.createScheduleContext(schedule);
+  }
+
+  @Test
+  public void testUpdateScheduleContextInvalidFrequency() {
+    Schedule schedule = ScheduleData.newTestInstance();
+    scheduler.createScheduleContext(schedule);
+    ScheduleContext scheduleContext = scheduler.getScheduleContext(schedule.getId());
+    long nextTime = scheduleContext.getNextTimeMillis();
+    Schedule invalid = ScheduleData.newTestInstance();
+    invalid.setFrequency("PT0S");
+    try {
+      scheduler.updateScheduleContext(invalid);
+      assertTrue("invalid frequency was accepted", false);
+    } catch (InvalidFrequencyException e) {
+      // expected
+    }
+    assertEquals("rejected update changed the schedule", nextTime,
+        scheduleContext.getNextTimeMillis());
+  }
+
+  @Test
+  public void testMoveEventToInvalidSchedule() {
+    Schedule schedule = ScheduleData.newTestInstance();
+    ScheduleEvent event = ScheduleEventData.newTestInstance();
+    event.setSchedule(schedule.getName());
+    Mockito.when(scheduleClient.scheduleForName(schedule.getName())).thenReturn(schedule);
+    assertTrue("could not add event", scheduler.addScheduleEventToScheduleContext(event));
+
+    Schedule invalid = ScheduleData.newTestInstance();
+    invalid.setId("invalid");
+    invalid.setName("invalid");
+    invalid.setFrequency("PT0S");
+    Mockito.when(scheduleClient.scheduleForName("invalid")).thenReturn(invalid);
+    ScheduleEvent moved = ScheduleEventData.newTestInstance();
+    moved.setSchedule("invalid");
+    try {
+      scheduler.addScheduleEventToScheduleContext(moved);
+      fail("invalid frequency was accepted");
+    } catch (InvalidFrequencyException e) {
+      // expected
+    }
+    ScheduleContext scheduleContext = scheduler.getScheduleContext(schedule.getId());
+    assertNotNull("rejected move removed the current schedule", scheduleContext);
+    assertTrue("rejected move removed the event",
+        scheduleContext.getScheduleEvents().containsKey(event.getId()));
+  }
+
   @Test
   public void testSchedule() throws IllegalAccessException {
     scheduler.schedule();
   }
 
+  @Test
+  public void testTimerWakesForNewSchedule() throws Exception {
+    // the virtual clock stands still, so the run once schedule is due as soon as it is queued and
+    // only a wake up gets the idle timer (sleeping maxsleep) to fire it
+    scheduler.setClock(new VirtualClock(1500000000000L));
+    scheduler.startTimer();
+    try {
+      ScheduleShard[] shards = (ScheduleShard[]) FieldUtils.readField(scheduler, "shards", true);
+      Thread timer = (Thread) FieldUtils.readField(shards[0], "timer", true);
+      while (timer.getState() != Thread.State.TIMED_WAITING) {
+        Thread.yield();
+      }
+      Schedule schedule = ScheduleData.newTestInstance();
+      schedule.setStart("");
+      schedule.setEnd("");
+      schedule.setRunOnce(true);
+      scheduler.createScheduleContext(schedule);
+      Mockito.verify(scheduleEventExecutor, Mockito.timeout(10000))
+          .execute(Mockito.any(ScheduleEvent[].class));
+    } finally {
+      scheduler.stopTimer();
+    }
+  }
+
+  @Test
+  public void testSubSecondFrequency() throws Exception {
+    VirtualClock clock = new VirtualClock(1500000000000L);
+    scheduler.setClock(clock);
+    List<Long> fires = new CopyOnWriteArrayList<>();
+    Mockito.doAnswer(invocation -> fires.add(clock.millis())).when(scheduleEventExecutor)
+        .execute(Mockito.any(ScheduleEvent[].class));
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setStart("");
+    schedule.setEnd("");
+    schedule.setFrequency("PT0.25S");
+    scheduler.createScheduleContext(schedule);
+    ScheduleContext scheduleContext = scheduler.getScheduleContext(schedule.getId());
+    assertNotNull("schedule context was not created", scheduleContext);
+    long first = scheduleContext.getNextTimeMillis();
+    scheduler.simulate(first + 1000);
+    assertEquals("expected 5 fires at 250ms", 5, fires.size());
+    for (int i = 0; i < fires.size(); i++) {
+      assertEquals("fire " + i + " is off its time", first + 250L * i, (long) fires.get(i));
+    }
+  }
+
+  @Test
+  public void testMisfireFireOnce() throws Exception {
+    ScheduleContext scheduleContext = createLateSchedule("fire_once");
+    for (int i = 0; i < 5; i++) {
+      scheduler.schedule();
+    }
+    Mockito.verify(scheduleEventExecutor, Mockito.times(1))
+        .execute(Mockito.any(ScheduleEvent[].class));
+    assertTrue("missed fires were not coalesced", scheduleContext.getCoalescedFires() >= 5);
+    assertEquals("coalesced fires not counted", scheduleContext.getCoalescedFires(),
+        scheduler.getCoalescedFires());
+  }
+
+  @Test
+  public void testMisfireFireAll() throws Exception {
+    createLateSchedule("fire_all");
+    for (int i = 0; i < 20; i++) {
+      scheduler.schedule();
+    }
+    Mockito.verify(scheduleEventExecutor, Mockito.atLeast(6))
+        .execute(Mockito.any(ScheduleEvent[].class));
+    assertEquals("fires were skipped", 0, scheduler.getSkippedFires());
+  }
+
+  @Test
+  public void testMisfireSkip() throws Exception {
+    ScheduleContext scheduleContext = createLateSchedule("skip");
+    scheduler.schedule();
+    Mockito.verify(scheduleEventExecutor, Mockito.never())
+        .execute(Mockito.any(ScheduleEvent[].class));
+    assertTrue("missed fires were not skipped", scheduleContext.getSkippedFires() >= 6);
+    assertTrue("next time is not in the future",
+        scheduleContext.getNextTimeMillis() > scheduler.getClock().millis());
+  }
+
+  @Test
+  public void testMisfireFireWithinTolerance() throws Exception {
+    ScheduleContext scheduleContext = createLateSchedule("fire_within_tolerance");
+    scheduler.schedule();
+    Mockito.verify(scheduleEventExecutor, Mockito.times(1))
+        .execute(Mockito.any(ScheduleEvent[].class));
+    assertTrue("missed fires were not skipped", scheduleContext.getSkippedFires() >= 5);
+    assertEquals("skipped fires not counted", scheduleContext.getSkippedFires(),
+        scheduler.getSkippedFires());
+  }
+
+  @Test
+  public void testWheelClockStepsBack() {
+    VirtualClock clock = new VirtualClock(1500000000000L);
+    scheduler.setScheduleQueueType(ScheduleQueue.WHEEL);
+    scheduler.setClock(clock);
+    // positions the wheels at the current time
+    scheduler.schedule();
+    clock.setMillis(1500000000000L - 60000);
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0])
+        .withZone(ZoneId.systemDefault());
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setStart(formatter.format(Instant.ofEpochMilli(1500000000000L - 30000)));
+    schedule.setEnd("");
+    schedule.setFrequency("PT1H");
+    scheduler.createScheduleContext(schedule);
+    scheduler.schedule();
+    Mockito.verify(scheduleEventExecutor, Mockito.never())
+        .execute(Mockito.any(ScheduleEvent[].class));
+    clock.setMillis(1500000000000L - 30000);
+    scheduler.schedule();
+    Mockito.verify(scheduleEventExecutor, Mockito.times(1))
+        .execute(Mockito.any(ScheduleEvent[].class));
+  }
+
+  @Test
+  public void testSimulateDay() {
+    VirtualClock clock = new VirtualClock(1500000000000L);
+    scheduler.setClock(clock);
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setStart("");
+    schedule.setEnd("");
+    schedule.setFrequency("PT1H");
+    scheduler.createScheduleContext(schedule);
+    assertEquals("wrong number of dispatches", 24, scheduler.simulate(1500000000000L + 86400000));
+    Mockito.verify(scheduleEventExecutor, Mockito.times(24))
+        .execute(Mockito.any(ScheduleEvent[].class));
+    assertEquals("clock should be at the end of the day", 1500000000000L + 86400000,
+        clock.millis());
+    assertEquals("next time should be the next hour", 1500000000000L + 90000000,
+        scheduler.getScheduleContext(schedule.getId()).getNextTimeMillis());
+  }
+
+  @Test
+  public void testShardSettingsRefusedOnceLoaded() throws Exception {
+    scheduler.setScheduleShards(2);
+    scheduler.createScheduleContext(ScheduleData.newTestInstance());
+    try {
+      scheduler.setClock(new VirtualClock(1500000000000L));
+      fail("clock changed with schedules loaded");
+    } catch (IllegalStateException e) {
+      // the shards holding the schedule are kept
+    }
+    int queued = 0;
+    for (ScheduleShard shard : (ScheduleShard[]) FieldUtils.readField(scheduler, "shards", true)) {
+      queued += shard.size();
+    }
+    assertEquals("schedule dropped from the shards", 1, queued);
+  }
+
+  @Test
+  public void testDispatchCapSharedByShards() throws Exception {
+    scheduler.setScheduleShards(3);
+    scheduler.setMaxDispatchPerSecond(10);
+    assertEquals("nothing deferred yet", 0, scheduler.getDeferredDispatches());
+    int total = 0;
+    for (ScheduleShard shard : (ScheduleShard[]) FieldUtils.readField(scheduler, "shards", true)) {
+      total += (int) FieldUtils.readField(shard.getPlanner(), "maxPerSecond", true);
+    }
+    assertEquals("shards do not share the dispatch cap", 10, total);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSimulateSystemClock() {
+    scheduler.simulate(System.currentTimeMillis());
+  }
+
+  @Test
+  public void testTieredSchedule() throws Exception {
+    FieldUtils.writeField(scheduler, "tieringHorizon", 3600000L, true);
+    scheduler.setClock(new VirtualClock(1500000000000L));
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setStart("");
+    schedule.setEnd("");
+    schedule.setFrequency("P1D");
+    scheduler.createScheduleContext(schedule);
+    ScheduleEvent event = ScheduleEventData.newTestInstance();
+    event.setSchedule(schedule.getName());
+    Mockito.when(scheduleClient.scheduleForName(schedule.getName())).thenReturn(schedule);
+    scheduler.addScheduleEventToScheduleContext(event);
+    ScheduleEvent other = ScheduleEventData.newTestInstance();
+    other.setId("other");
+    other.setSchedule(schedule.getName());
+    scheduler.addScheduleEventToScheduleContext(other);
+    scheduler.removeScheduleEventById(other.getId());
+    ScheduleContext sc = scheduler.getScheduleContext(schedule.getId());
+    // callbacks leave the context to be tiered once, on the next tick
+    assertFalse("schedule should not be tiered by a callback", sc.isDormant());
+    scheduler.schedule();
+    assertTrue("far schedule should be dormant", sc.isDormant());
+    assertEquals("logging should not inflate", schedule.getName(), sc.getName());
+    assertTrue("logging should not inflate", sc.isDormant());
+    assertEquals("wrong number of dispatches", 1, scheduler.simulate(1500000000000L + 86400000));
+    Mockito.verify(scheduleEventExecutor, Mockito.times(1))
+        .execute(Mockito.argThat(new ArgumentMatcher<ScheduleEvent[]>() {
+          @Override
+          public boolean matches(Object argument) {
+            ScheduleEvent[] events = (ScheduleEvent[]) argument;
+            return events.length == 1 && event.getId().equals(events[0].getId());
+          }
+        }));
+    assertTrue("schedule should be dormant again after firing", sc.isDormant());
+    assertEquals("next time should be the next day", 1500000000000L + 2 * 86400000,
+        sc.getNextTimeMillis());
+  }
+
+  @Test
+  public void testTieredScheduleInflatedAhead() throws Exception {
+    FieldUtils.writeField(scheduler, "tieringHorizon", 3600000L, true);
+    scheduler.setClock(new VirtualClock(1500000000000L));
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setStart("");
+    schedule.setEnd("");
+    schedule.setFrequency("P1D");
+    scheduler.createScheduleContext(schedule);
+    ScheduleContext sc = scheduler.getScheduleContext(schedule.getId());
+    scheduler.schedule();
+    assertTrue("far schedule should be dormant", sc.isDormant());
+    long fireTime = sc.getNextTimeMillis();
+    scheduler.simulate(fireTime - 3600001);
+    assertTrue("schedule inflated before the horizon", sc.isDormant());
+    scheduler.simulate(fireTime - 3600000);
+    assertFalse("schedule not inflated at the horizon", sc.isDormant());
+    Mockito.verify(scheduleEventExecutor, Mockito.never())
+        .execute(Mockito.any(ScheduleEvent[].class));
+  }
+
+  @Test
+  public void testRemoveDormantScheduleFreesStore() throws Exception {
+    FieldUtils.writeField(scheduler, "tieringHorizon", 3600000L, true);
+    FieldUtils.writeField(scheduler, "tieringOffHeap", true, true);
+    scheduler.setClock(new VirtualClock(1500000000000L));
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setStart("");
+    schedule.setEnd("");
+    schedule.setFrequency("P1D");
+    scheduler.createScheduleContext(schedule);
+    ScheduleEvent event = ScheduleEventData.newTestInstance();
+    event.setSchedule(schedule.getName());
+    Mockito.when(scheduleClient.scheduleForName(schedule.getName())).thenReturn(schedule);
+    scheduler.addScheduleEventToScheduleContext(event);
+    ScheduleContext sc = scheduler.getScheduleContext(schedule.getId());
+    scheduler.schedule();
+    assertTrue("far schedule should be dormant", sc.isDormant());
+    ScheduleSlabStore store = (ScheduleSlabStore) FieldUtils.readField(scheduler, "slabStore", true);
+    assertEquals("dormant schedule not in the store", 1, store.size());
+    assertTrue("could not remove schedule", scheduler.removeScheduleById(schedule.getId()));
+    assertEquals("removed schedule still in the store", 0, store.size());
+    // no event is left mapped to the removed schedule
+    assertRegistryConsistent();
+  }
+
+  @Test
+  public void testReclaimCompletedSchedule() throws Exception {
+    FieldUtils.writeField(scheduler, "retention", 0L, true);
+    scheduler.setClock(new VirtualClock(1500000000000L));
+    Schedule schedule = createRunOnceSchedule("once");
+    scheduler.simulate(1500000060000L);
+    Mockito.verify(scheduleEventExecutor, Mockito.times(1))
+        .execute(Mockito.any(ScheduleEvent[].class));
+    assertTrue("completed schedule was not reclaimed",
+        scheduler.getScheduleContext(schedule.getId()) == null);
+    assertTrue("event mapping was not reclaimed",
+        !scheduler.removeScheduleEventById(schedule.getId() + "-event"));
+    assertEquals("reclaimed schedule not counted", 1, scheduler.getReclaimedSchedules());
+  }
+
+  @Test
+  public void testRetainCompletedSchedule() throws Exception {
+    FieldUtils.writeField(scheduler, "retention", 3600000L, true);
+    scheduler.setClock(new VirtualClock(1500000000000L));
+    Schedule schedule = createRunOnceSchedule("once");
+    scheduler.simulate(1500000060000L);
+    assertNotNull("completed schedule was not retained",
+        scheduler.getScheduleContext(schedule.getId()));
+    assertEquals("retained schedule not counted", 1, scheduler.getRetainedSchedules());
+    scheduler.simulate(1500007200000L);
+    assertTrue("completed schedule was not reclaimed after its retention",
+        scheduler.getScheduleContext(schedule.getId()) == null);
+    assertEquals("retained schedule still counted", 0, scheduler.getRetainedSchedules());
+  }
+
+  @Test
+  public void testRetentionBudget() throws Exception {
+    FieldUtils.writeField(scheduler, "retention", 3600000L, true);
+    FieldUtils.writeField(scheduler, "maxRetained", 2, true);
+    scheduler.setScheduleShards(1);
+    scheduler.setClock(new VirtualClock(1500000000000L));
+    for (int i = 0; i < 5; i++) {
+      createRunOnceSchedule("once" + i);
+    }
+    scheduler.simulate(1500000060000L);
+    assertEquals("retained schedules over budget", 2, scheduler.getRetainedSchedules());
+    assertEquals("oldest schedules not reclaimed", 3, scheduler.getReclaimedSchedules());
+  }
+
+  // a run once schedule with one event, firing as it is created
+  private Schedule createRunOnceSchedule(String id) {
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setId(id);
+    schedule.setName(id);
+    schedule.setStart("");
+    schedule.setEnd("");
+    schedule.setRunOnce(true);
+    scheduler.createScheduleContext(schedule);
+    ScheduleEvent event = ScheduleEventData.newTestInstance();
+    event.setId(id + "-event");
+    event.setSchedule(id);
+    Mockito.when(scheduleClient.scheduleForName(id)).thenReturn(schedule);
+    scheduler.addScheduleEventToScheduleContext(event);
+    return schedule;
+  }
+
+  // a 100ms schedule stalled for a second past its start, so ten occurrences are missed
+  private ScheduleContext createLateSchedule(String policy) throws Exception {
+    VirtualClock clock = new VirtualClock(1500000000000L);
+    scheduler.setClock(clock);
+    scheduler.setMisfirePolicy(policy);
+    FieldUtils.writeField(scheduler, "misfireTolerance", 300L, true);
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0])
+        .withZone(ZoneId.systemDefault());
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setStart(formatter.format(Instant.ofEpochMilli(clock.millis()).plusSeconds(1)));
+    schedule.setEnd("");
+    schedule.setFrequency("PT0.1S");
+    scheduler.createScheduleContext(schedule);
+    ScheduleContext scheduleContext = scheduler.getScheduleContext(schedule.getId());
+    clock.setMillis(scheduleContext.getNextTimeMillis() + 1000);
+    return scheduleContext;
+  }
+
+  @Test
+  public void testLockReleasedDuringDispatch() throws Exception {
+    // stub endpoint that stalls until released
+    CountDownLatch received = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicBoolean responded = new AtomicBoolean();
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/stall", exchange -> {
+      received.countDown();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      responded.set(true);
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+    });
+    server.start();
+    FieldUtils.writeField(scheduler, "scheduleEventExecutor", new ScheduleEventExecutor(), true);
+    try {
+      Schedule schedule = ScheduleData.newTestInstance();
+      schedule.setStart("");
+      schedule.setEnd("");
+      schedule.setFrequency("PT0.5S");
+      scheduler.createScheduleContext(schedule);
+      Addressable addressable = new Addressable("stall", Protocol.HTTP, "localhost", "/stall",
+          server.getAddress().getPort());
+      ScheduleEvent event =
+          new ScheduleEvent("stall", addressable, "{}", schedule.getName(), "test");
+      event.setId("stall");
+      scheduler.getScheduleContext(schedule.getId()).addScheduleEvent(event);
+
+      scheduler.startTimer();
+      assertTrue("stub endpoint was not called", received.await(5, TimeUnit.SECONDS));
+
+      // the dispatch is stalled until released, callbacks must complete before it
+      Schedule other = ScheduleData.newTestInstance();
+      other.setId("other");
+      assertTrue("could not create schedule", scheduler.createScheduleContext(other));
+      assertTrue("could not update schedule", scheduler.updateScheduleContext(other));
+      assertTrue("could not remove schedule", scheduler.removeScheduleById("other"));
+      assertFalse("callbacks waited for the stalled dispatch", responded.get());
+    } finally {
+      release.countDown();
+      scheduler.stopTimer();
+      server.stop(0);
+    }
+  }
+
+  @Test
+  public void testShardedSchedules() throws Exception {
+    scheduler.setScheduleShards(4);
+    scheduler.setClock(new VirtualClock(1500000000000L));
+    Set<String> fired = ConcurrentHashMap.newKeySet();
+    Mockito.doAnswer(invocation -> {
+      for (ScheduleEvent event : (ScheduleEvent[]) invocation.getArguments()[0]) {
+        fired.add(event.getId());
+      }
+      return null;
+    }).when(scheduleEventExecutor).execute(Mockito.any(ScheduleEvent[].class));
+    for (int i = 0; i < 16; i++) {
+      Schedule schedule = ScheduleData.newTestInstance();
+      schedule.setId("schedule" + i);
+      schedule.setStart("");
+      schedule.setEnd("");
+      schedule.setFrequency("PT0.1S");
+      scheduler.createScheduleContext(schedule);
+      // one event per schedule, keyed by the schedule id
+      ScheduleEvent event = ScheduleEventData.newTestInstance();
+      event.setId(schedule.getId());
+      scheduler.getScheduleContext(schedule.getId()).addScheduleEvent(event);
+    }
+    ScheduleShard[] shards = (ScheduleShard[]) FieldUtils.readField(scheduler, "shards", true);
+    assertEquals("wrong number of shards", 4, shards.length);
+    int queued = 0;
+    int used = 0;
+    for (ScheduleShard shard : shards) {
+      queued += shard.size();
+      used += shard.size() > 0 ? 1 : 0;
+    }
+    assertEquals("schedules missing from the shards", 16, queued);
+    assertTrue("schedules were not partitioned", used > 1);
+
+    scheduler.simulate(1500000000000L + 100);
+    assertEquals("not every schedule fired", 16, fired.size());
+  }
+
+  @Test
+  public void testConcurrentCallbacks() throws Exception {
+    // schedules are looked up by name, each name maps to its own fast schedule
+    Mockito.when(scheduleClient.scheduleForName(Mockito.anyString())).thenAnswer(invocation -> {
+      Schedule schedule = ScheduleData.newTestInstance();
+      schedule.setId((String) invocation.getArguments()[0]);
+      schedule.setName(schedule.getId());
+      schedule.setStart("");
+      schedule.setEnd("");
+      schedule.setFrequency("PT0.05S");
+      return schedule;
+    });
+    List<Throwable> failures = new CopyOnWriteArrayList<>();
+    int threads = 8;
+    CountDownLatch done = new CountDownLatch(threads);
+    scheduler.startTimer();
+    try {
+      for (int t = 0; t < threads; t++) {
+        final int thread = t;
+        new Thread(() -> {
+          try {
+            Random random = new Random(thread);
+            for (int i = 0; i < 2000; i++) {
+              String scheduleId = "schedule" + random.nextInt(16);
+              ScheduleEvent event = ScheduleEventData.newTestInstance();
+              event.setId("event" + thread + "-" + random.nextInt(32));
+              event.setSchedule(scheduleId);
+              switch (random.nextInt(5)) {
+                case 0:
+                  scheduler.removeScheduleById(scheduleId);
+                  break;
+                case 1:
+                  Schedule schedule = scheduleClient.scheduleForName(scheduleId);
+                  scheduler.updateScheduleContext(schedule);
+                  break;
+                case 2:
+                  scheduler.removeScheduleEventById(event.getId());
+                  break;
+                case 3:
+                  scheduler.updateScheduleEventInScheduleContext(event);
+                  break;
+                default:
+                  scheduler.addScheduleEventToScheduleContext(event);
+                  break;
+              }
+            }
+          } catch (Throwable e) {
+            failures.add(e);
+          } finally {
+            done.countDown();
+          }
+        }).start();
+      }
+      assertTrue("callbacks did not finish", done.await(30, TimeUnit.SECONDS));
+    } finally {
+      scheduler.stopTimer();
+    }
+    assertTrue("callbacks failed " + failures, failures.isEmpty());
+    Mockito.verify(scheduleEventExecutor, Mockito.atLeastOnce())
+        .execute(Mockito.any(ScheduleEvent[].class));
+
+    assertRegistryConsistent();
+  }
+
+  @Test
+  public void testConcurrentCallbacksOnSharedEvents() throws Exception {
+    Mockito.when(scheduleClient.scheduleForName(Mockito.anyString())).thenAnswer(invocation -> {
+      Schedule schedule = ScheduleData.newTestInstance();
+      schedule.setId((String) invocation.getArguments()[0]);
+      schedule.setName(schedule.getId());
+      schedule.setStart("");
+      schedule.setEnd("");
+      schedule.setFrequency("PT1H");
+      return schedule;
+    });
+    // every thread adds, moves and removes the same few events across a few schedules
+    List<Throwable> failures = new CopyOnWriteArrayList<>();
+    int threads = 8;
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      final int thread = t;
+      new Thread(() -> {
+        try {
+          Random random = new Random(thread);
+          for (int i = 0; i < 10000; i++) {
+            ScheduleEvent event = ScheduleEventData.newTestInstance();
+            event.setId("event" + random.nextInt(2));
+            event.setSchedule("schedule" + random.nextInt(4));
+            switch (random.nextInt(3)) {
+              case 0:
+                scheduler.removeScheduleEventById(event.getId());
+                break;
+              case 1:
+                scheduler.updateScheduleEventInScheduleContext(event);
+                break;
+              default:
+                scheduler.addScheduleEventToScheduleContext(event);
+                break;
+            }
+          }
+        } catch (Throwable e) {
+          failures.add(e);
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+    assertTrue("callbacks did not finish", done.await(30, TimeUnit.SECONDS));
+    assertTrue("callbacks failed " + failures, failures.isEmpty());
+    assertRegistryConsistent();
+  }
+
+  // every event mapping points at a context holding the event, and the reverse, so no event is
+  // held by two schedules
+  private void assertRegistryConsistent() throws IllegalAccessException {
+    @SuppressWarnings("unchecked")
+    Map<String, ScheduleContext> contexts = (Map<String, ScheduleContext>) FieldUtils
+        .readField(scheduler, "scheduleIdToScheduleContextMap", true);
+    @SuppressWarnings("unchecked")
+    Map<String, String> eventToSchedule =
+        (Map<String, String>) FieldUtils.readField(scheduler, "scheduleEventIdToScheduleIdMap", true);
+    for (Map.Entry<String, String> entry : eventToSchedule.entrySet()) {
+      ScheduleContext sc = contexts.get(entry.getValue());
+      assertNotNull("event " + entry.getKey() + " maps to a missing schedule", sc);
+      assertTrue("event " + entry.getKey() + " missing from its schedule",
+          sc.getScheduleEvents().containsKey(entry.getKey()));
+    }
+    for (ScheduleContext sc : contexts.values()) {
+      for (String eventId : sc.getScheduleEvents().keySet()) {
+        assertEquals("event " + eventId + " is not mapped to its schedule", sc.getId(),
+            eventToSchedule.get(eventId));
+      }
+    }
+  }
+
 }
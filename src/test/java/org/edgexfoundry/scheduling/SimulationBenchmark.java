@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import org.apache.commons.lang.reflect.FieldUtils;
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Replays a day and a month of SCHEDULES schedules in virtual time and measures the scheduler CPU
+ * cost per simulated fire.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class SimulationBenchmark {
+
+  private static final int SCHEDULES = 100000;
+  private static final long DAY = 86400000L;
+  private static final String[] DAY_FREQUENCIES = {"PT15M", "PT1H", "PT6H", "P1D"};
+  private static final String[] MONTH_FREQUENCIES = {"PT6H", "P1D", "P7D", "P1M"};
+
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0]).withZone(ZoneId.systemDefault());
+
+  @Test
+  public void replayDay() throws Exception {
+    replay("day", DAY_FREQUENCIES, DAY);
+  }
+
+  @Test
+  public void replayMonth() throws Exception {
+    replay("month", MONTH_FREQUENCIES, 30 * DAY);
+  }
+
+  private void replay(String name, String[] frequencies, long span) throws Exception {
+    long base = Instant.parse("2017-01-01T00:00:00Z").toEpochMilli();
+    VirtualClock clock = new VirtualClock(base);
+    Scheduler scheduler = new Scheduler();
+    scheduler.setClock(clock);
+    FieldUtils.writeField(scheduler, "scheduleEventExecutor", new ScheduleEventExecutor() {
+      @Override
+      public void execute(ScheduleEvent[] events) {
+        // fires are counted by simulate
+      }
+    }, true);
+    // starts are spread over the first hour
+    Random random = new Random(42);
+    for (int i = 0; i < SCHEDULES; i++) {
+      Schedule schedule = ScheduleData.newTestInstance();
+      schedule.setId("id" + i);
+      schedule.setName("schedule" + i);
+      schedule.setStart(
+          FORMATTER.format(Instant.ofEpochMilli(base + 1000L * random.nextInt(3600))));
+      schedule.setEnd("");
+      schedule.setRunOnce(false);
+      schedule.setFrequency(frequencies[i % frequencies.length]);
+      scheduler.createScheduleContext(schedule);
+    }
+
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    long cpu = threads.getCurrentThreadCpuTime();
+    long wall = System.nanoTime();
+    long fires = scheduler.simulate(base + span);
+    cpu = threads.getCurrentThreadCpuTime() - cpu;
+    wall = System.nanoTime() - wall;
+
+    System.out.println(name + ": " + SCHEDULES + " schedules, " + fires + " fires in "
+        + wall / 1000000 + " ms, " + (fires == 0 ? 0 : cpu / fires) + " ns cpu/fire");
+  }
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Protocol;
+import org.edgexfoundry.scheduling.TargetBulkheads.Admission;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class TargetBulkheadsTest {
+
+  private static final String TARGET = "device:48000";
+  private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+  @Test
+  public void testAdmitQueueShed() {
+    TargetBulkheads<String> bulkheads = new TargetBulkheads<>(2, 1, 8, 1000, 1);
+    assertEquals("first task not admitted", Admission.ADMITTED, bulkheads.submit(TARGET, "a"));
+    assertEquals("second task not admitted", Admission.ADMITTED, bulkheads.submit(TARGET, "b"));
+    assertEquals("task past the limit not queued", Admission.QUEUED, bulkheads.submit(TARGET, "c"));
+    assertEquals("task past the queue not shed", Admission.SHED, bulkheads.submit(TARGET, "d"));
+    assertEquals("other target limited", Admission.ADMITTED, bulkheads.submit("other:80", "e"));
+    assertEquals("wrong queued count", 1, bulkheads.getQueued());
+    assertEquals("queued task not handed the slot", Arrays.asList("c"),
+        bulkheads.release(TARGET, true, 0));
+    assertTrue("slot handed to nothing", bulkheads.cancel(TARGET).isEmpty());
+    assertEquals("wrong queued count", 0, bulkheads.getQueued());
+  }
+
+  @Test
+  public void testShedWithoutQueue() {
+    TargetBulkheads<String> bulkheads = new TargetBulkheads<>(1, 1, 8, 1000, 0);
+    bulkheads.submit(TARGET, "a");
+    assertEquals("task past the limit not shed", Admission.SHED, bulkheads.submit(TARGET, "b"));
+  }
+
+  @Test
+  public void testAdditiveIncrease() {
+    TargetBulkheads<String> bulkheads = new TargetBulkheads<>(2, 1, 4, 1000, 0);
+    // about one more per round of calls at the current limit, capped at the max
+    int calls = 0;
+    while (bulkheads.getLimits().get(TARGET) == null || bulkheads.getLimits().get(TARGET) < 3) {
+      bulkheads.submit(TARGET, "a");
+      bulkheads.release(TARGET, true, 0);
+      calls++;
+    }
+    // 2 + 1/2 + 1/2.5 + 1/2.9
+    assertEquals("limit raised too fast or too slow", 3, calls);
+    for (int i = 0; i < 100; i++) {
+      bulkheads.submit(TARGET, "a");
+      bulkheads.release(TARGET, true, 0);
+    }
+    assertEquals("limit not capped", 4, (int) bulkheads.getLimits().get(TARGET));
+  }
+
+  @Test
+  public void testMultiplicativeDecrease() {
+    TargetBulkheads<String> bulkheads = new TargetBulkheads<>(8, 1, 8, 1000, 0);
+    for (int i = 0; i < 8; i++) {
+      bulkheads.submit(TARGET, "a");
+    }
+    // a round of slow calls that all started before the first decrease halves the limit once
+    for (int i = 0; i < 8; i++) {
+      bulkheads.release(TARGET, true, SLOW);
+    }
+    assertEquals("limit not halved once", 4, (int) bulkheads.getLimits().get(TARGET));
+    // a failed call started after the decrease halves it again
+    bulkheads.submit(TARGET, "a");
+    bulkheads.release(TARGET, false, 0);
+    assertEquals("limit not halved on failure", 2, (int) bulkheads.getLimits().get(TARGET));
+    bulkheads.submit(TARGET, "a");
+    bulkheads.release(TARGET, false, 0);
+    bulkheads.submit(TARGET, "a");
+    bulkheads.release(TARGET, false, 0);
+    assertEquals("limit below the min", 1, (int) bulkheads.getLimits().get(TARGET));
+  }
+
+  @Test
+  public void testHeldTasksDrainInOrder() {
+    TargetBulkheads<String> bulkheads = new TargetBulkheads<>(1, 1, 8, 1000, 10);
+    bulkheads.submit(TARGET, "a");
+    bulkheads.submit(TARGET, "b");
+    bulkheads.submit(TARGET, "c");
+    bulkheads.submit(TARGET, "d");
+    // the limit grows to 2 on release, so two held tasks take the free slots, oldest first
+    assertEquals("free slots not all handed over", Arrays.asList("b", "c"),
+        bulkheads.release(TARGET, true, 0));
+    assertEquals("new task overtook a held one", Admission.QUEUED, bulkheads.submit(TARGET, "e"));
+    // a failure halves the limit to 1 with one call still in flight
+    assertTrue("slot handed over past the decreased limit",
+        bulkheads.release(TARGET, false, 0).isEmpty());
+    assertEquals("held tasks out of order", Arrays.asList("d", "e"),
+        bulkheads.release(TARGET, true, 0));
+  }
+
+  @Test
+  public void testIdleTargetsForgotten() {
+    TargetBulkheads<String> bulkheads = new TargetBulkheads<>(1, 1, 8, 1000, 10, 0);
+    bulkheads.submit(TARGET, "a");
+    bulkheads.submit("busy:80", "b");
+    bulkheads.release(TARGET, true, 0);
+    // the next submit sweeps, the target with a call in flight is kept
+    bulkheads.submit("other:80", "c");
+    assertEquals("idle target kept", new HashSet<>(Arrays.asList("busy:80", "other:80")),
+        bulkheads.getLimits().keySet());
+    assertEquals("busy target lost its slot", Admission.QUEUED, bulkheads.submit("busy:80", "d"));
+    assertEquals("held task not handed the slot", Arrays.asList("d"),
+        bulkheads.release("busy:80", true, 0));
+  }
+
+  @Test
+  public void testTargetOf() {
+    assertEquals("wrong target", "localhost:48080", TargetBulkheads
+        .targetOf(new Addressable("a", Protocol.HTTP, "localhost", "/api/v1/event", 48080)));
+    assertNull("target without an addressable", TargetBulkheads.targetOf(null));
+  }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.edgexfoundry.domain.meta.Schedule;
+import org.edgexfoundry.test.category.RequiresNone;
+import org.edgexfoundry.test.data.ScheduleData;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(RequiresNone.class)
+public class TimingWheelScheduleQueueTest {
+
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.ofPattern(Schedule.DATETIME_FORMATS[0]).withZone(ZoneId.systemDefault());
+
+  private long base;
+
+  private ScheduleQueue queue;
+
+  @Before
+  public void setup() {
+    // start a day out so every context's next time is its start time
+    base = (Instant.now().getEpochSecond() + 86400) * 1000;
+    queue = new TimingWheelScheduleQueue();
+    assertNull("nothing should be due", queue.pollDue(base));
+  }
+
+  @Test
+  public void testPollDueInOrder() {
+    Random random = new Random(42);
+    List<ScheduleContext> contexts = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      ScheduleContext sc = newContext("id" + i, base + 1000 * (1 + random.nextInt(400000)));
+      contexts.add(sc);
+      queue.add(sc);
+    }
+    assertEquals("queue size is incorrect", 1000, queue.size());
+    long last = 0;
+    int polled = 0;
+    for (long now = base; now <= base + 400001000; now += 997000) {
+      ScheduleContext sc;
+      while ((sc = queue.pollDue(now)) != null) {
+        long next = sc.getNextTimeMillis();
+        assertTrue("context polled before it was due", next <= now);
+        assertTrue("context polled out of order", next >= last);
+        last = next;
+        polled++;
+      }
+    }
+    assertEquals("not all contexts were polled", 1000, polled);
+    assertTrue("queue should be empty", queue.isEmpty());
+  }
+
+  @Test
+  public void testNotDueUntilNextTime() {
+    ScheduleContext sc = newContext("id1", base + 4000000);
+    queue.add(sc);
+    assertNull("context polled early", queue.pollDue(base + 3999999));
+    assertEquals("context not polled when due", sc, queue.pollDue(base + 4000000));
+  }
+
+  @Test
+  public void testMillisecondPrecision() {
+    ScheduleContext sc = newContext("id1", base + 5000);
+    sc.schedule.setFrequency("PT0.25S");
+    sc.reset(sc.schedule);
+    sc.updateNextTime();
+    assertEquals("next time should be 250ms after start", base + 5250, sc.getNextTimeMillis());
+    queue.add(sc);
+    assertNull("context polled early", queue.pollDue(base + 5249));
+    assertEquals("context not polled when due", sc, queue.pollDue(base + 5250));
+  }
+
+  @Test
+  public void testRemove() {
+    ScheduleContext sc1 = newContext("id1", base + 10000);
+    ScheduleContext sc2 = newContext("id2", base + 10000);
+    queue.add(sc1);
+    queue.add(sc2);
+    assertTrue("context was not removed", queue.remove(sc1));
+    assertFalse("context was removed twice", queue.remove(sc1));
+    assertEquals("wrong context polled", sc2, queue.pollDue(base + 10000));
+    assertNull("removed context was polled", queue.pollDue(base + 10000));
+  }
+
+  @Test
+  public void testAlreadyDue() {
+    ScheduleContext sc = newContext("id1", base + 100000);
+    queue.pollDue(base + 200000);
+    queue.add(sc);
+    assertEquals("overdue context not polled", sc, queue.pollDue(base + 200000));
+  }
+
+  @Test
+  public void testClockStepsBack() {
+    queue.pollDue(base + 60000);
+    ScheduleContext sc = newContext("id1", base + 30000);
+    queue.add(sc);
+    // the clock stepped back a minute, the context is not due for another 30 seconds
+    assertNull("context polled before its time", queue.pollDue(base));
+    assertNull("context polled before its time", queue.pollDue(base + 29999));
+    assertEquals("context not polled when due", sc, queue.pollDue(base + 30000));
+  }
+
+  @Test
+  public void testFarFuture() {
+    ScheduleContext sc = newContext("id1", base + 200L * 365 * 86400000);
+    queue.add(sc);
+    assertNull("context polled early", queue.pollDue(base + 199L * 365 * 86400000));
+    assertEquals("context not polled when due", sc, queue.pollDue(base + 201L * 365 * 86400000));
+  }
+
+  @Test
+  public void testClear() {
+    queue.add(newContext("id1", base + 10000));
+    queue.clear();
+    assertTrue("queue should be empty", queue.isEmpty());
+    assertNull("cleared context was polled", queue.pollDue(base + 10000));
+  }
+
+  private ScheduleContext newContext(String id, long epochMilli) {
+    Schedule schedule = ScheduleData.newTestInstance();
+    schedule.setId(id);
+    schedule.setStart(FORMATTER.format(Instant.ofEpochMilli(epochMilli)));
+    schedule.setEnd("");
+    schedule.setRunOnce(false);
+    return new ScheduleContext(schedule);
+  }
+}
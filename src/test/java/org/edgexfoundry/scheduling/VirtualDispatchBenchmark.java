@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright 2016-2017 Dell Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ * @microservice: support-scheduler
+ * @author: Marc Hammons, Dell
+ * @version: 1.0.0
+ *******************************************************************************/
+
+package org.edgexfoundry.scheduling;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.reflect.FieldUtils;
+import org.edgexfoundry.domain.meta.Addressable;
+import org.edgexfoundry.domain.meta.Protocol;
+import org.edgexfoundry.domain.meta.ScheduleEvent;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the worker pool and virtual thread dispatch modes firing FIRES events at once against a
+ * local stub that answers after DELAY_MILLIS. Run on JDK 21 or later, earlier JDKs fall back to the
+ * pool.
+ */
+@Ignore(Benchmarks.IGNORED)
+public class VirtualDispatchBenchmark {
+
+  private static final int FIRES = 10000;
+  private static final long DELAY_MILLIS = 200;
+  private static final int WORKERS = 200;
+  // pooled connections to the stub, open sockets are the limit on a small host
+  private static final int CONNECTIONS = 4000;
+
+  @Test
+  public void compareModes() throws Exception {
+    ScheduledExecutorService responder = Executors.newSingleThreadScheduledExecutor();
+    // the stub answers from a timer rather than holding a handler thread per request
+    try (Benchmarks.StubTarget target = new Benchmarks.StubTarget("/slow", FIRES,
+        exchange -> responder.schedule(() -> {
+          try {
+            exchange.sendResponseHeaders(200, -1);
+          } catch (Exception e) {
+            // the client gave up
+          }
+          exchange.close();
+        }, DELAY_MILLIS, TimeUnit.MILLISECONDS))) {
+      for (int round = 0; round < 2; round++) {
+        run(ScheduleEventExecutor.POOL, target.getPort());
+        run(ScheduleEventExecutor.VIRTUAL, target.getPort());
+      }
+    } finally {
+      responder.shutdown();
+    }
+  }
+
+  private void run(String mode, int port) throws Exception {
+    CountDownLatch done = new CountDownLatch(FIRES);
+    AtomicInteger peak = new AtomicInteger();
+    ScheduleEventExecutor executor = new ScheduleEventExecutor();
+    ScheduleEventHTTPExecutor httpExecutor = new ScheduleEventHTTPExecutor() {
+      @Override
+      public boolean execute(ScheduleEvent event) {
+        peak.accumulateAndGet(executor.getActiveWorkers(), Math::max);
+        boolean executed = super.execute(event);
+        done.countDown();
+        return executed;
+      }
+    };
+    FieldUtils.writeField(httpExecutor, "maxPerHost", CONNECTIONS, true);
+    FieldUtils.writeField(httpExecutor, "maxTotal", CONNECTIONS, true);
+    FieldUtils.writeField(httpExecutor, "timeout", 60000, true);
+    executor.httpExecutor = httpExecutor;
+    executor.setWorkers(WORKERS);
+    executor.setQueueCapacity(FIRES);
+    executor.setDispatchMode(mode);
+    Addressable addressable = new Addressable("slow", Protocol.HTTP, "localhost", "/slow", port);
+    ScheduleEvent[] events = new ScheduleEvent[FIRES];
+    for (int i = 0; i < FIRES; i++) {
+      events[i] = new ScheduleEvent("slow" + i, addressable, "{}", "schedule", "test");
+    }
+
+    long start = System.nanoTime();
+    executor.execute(events);
+    done.await();
+    long elapsed = System.nanoTime() - start;
+    System.out.println(mode + ": " + FIRES + " fires in " + TimeUnit.NANOSECONDS.toMillis(elapsed)
+        + " ms, " + FIRES * 1000000000L / elapsed + " fires/s, peak " + peak + " in flight, "
+        + executor.getRejected() + " rejected");
+    executor.shutdown();
+    httpExecutor.close();
+  }
+}